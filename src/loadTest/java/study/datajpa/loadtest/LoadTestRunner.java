@@ -0,0 +1,215 @@
+package study.datajpa.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.search.SearchIndex;
+import study.datajpa.stat.MemberStatService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*  REST API 부하 테스트 - ./gradlew loadTest
+    1. 메모리 H2 로 애플리케이션을 띄우고, H2 SYSTEM_RANGE 로 회원/팀을 SQL 한 번씩에 대량 적재한다.
+    2. closed 모델(사용자 수 고정, 응답 후 바로 다음 요청) 또는 open 모델(초당 요청 수 고정)로 API 를 호출한다.
+       open 모델은 요청 예정 시각부터 지연 시간을 재므로 서버가 밀려도 지연이 과소 측정되지 않는다. (coordinated omission)
+    3. API 별 처리량과 HDR 히스토그램 지연 백분위를 출력하고 build/reports/loadtest/report.txt 로 남긴다.
+    4. loadTest.slo 를 넘으면 종료 코드 1 - 빌드에서 지연 회귀를 막는다.
+
+    시스템 프로퍼티 (gradle -PloadTest.xxx 로 전달)
+    loadTest.members=1000000, loadTest.teams=1000, loadTest.model=closed|open, loadTest.users=32, loadTest.rate=2000,
+    loadTest.warmupSeconds=10, loadTest.durationSeconds=30, loadTest.slo=/members:p99=200,/members/{id}:p99=50 (ms) */
+public class LoadTestRunner {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final int members = Integer.getInteger("loadTest.members", 1_000_000);
+    private final int teams = Integer.getInteger("loadTest.teams", 1_000);
+    private final String model = System.getProperty("loadTest.model", "closed");
+    private final int users = Integer.getInteger("loadTest.users", 32);
+    private final int rate = Integer.getInteger("loadTest.rate", 2_000);
+    private final int warmupSeconds = Integer.getInteger("loadTest.warmupSeconds", 10);
+    private final int durationSeconds = Integer.getInteger("loadTest.durationSeconds", 30);
+    private final String slo = System.getProperty("loadTest.slo", "");
+
+    private String baseUrl;
+
+    public static void main(String[] args) throws Exception {
+        int exitCode;
+        try (ConfigurableApplicationContext context = SpringApplication.run(DataJpaApplication.class,
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--server.port=0",
+                "--datajpa.seed.count=0",
+                "--datajpa.bootstrap.snapshot=",
+                "--decorator.datasource.p6spy.enable-logging=false",
+                "--logging.level.root=warn")) {
+            LoadTestRunner runner = new LoadTestRunner();
+            runner.seed(context);
+            runner.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            exitCode = runner.run();
+        }
+        System.exit(exitCode);
+    }
+
+    // H2 의 SYSTEM_RANGE 로 엔티티를 거치지 않고 한 문장씩 적재한 뒤, 파생 데이터(집계, 색인, 시퀀스)를 맞춘다.
+    private void seed(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("insert into team (team_id, name, member_count) select x, 'team' || x, 0 from system_range(1, ?)", teams);
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id, created_date, last_modified_date, created_by, last_modified_by)" +
+                " select x, 'user' || x, mod(x, 100), mod(x, ?) + 1, current_timestamp, current_timestamp, 'loadtest', 'loadtest'" +
+                " from system_range(1, ?)", teams, members);
+        jdbcTemplate.update("update team t set member_count = (select count(*) from member m where m.team_id = t.team_id)");
+        jdbcTemplate.execute("alter sequence member_seq restart with " + (members + 1000));
+        jdbcTemplate.execute("alter sequence team_seq restart with " + (teams + 1000));
+        context.getBean(MemberStatService.class).rebuild();
+        context.getBean(SearchIndex.class).rebuild();
+        System.out.printf("seeded %,d members, %,d teams in %,d ms%n", members, teams, System.currentTimeMillis() - start);
+    }
+
+    private int run() throws Exception {
+        List<Endpoint> endpoints = List.of(
+                new Endpoint("/members", random -> "/members?page=" + random.nextInt(Math.max(1, members / 20)) + "&size=20"),
+                new Endpoint("/members/{id}", random -> "/members/" + (1 + random.nextInt(members))),
+                new Endpoint("/members2/{id}", random -> "/members2/" + (1 + random.nextInt(members))));
+        endpoints.forEach(endpoint -> recorders.put(endpoint.name(), new Recorder(MAX_LATENCY_MICROS, 3)));
+
+        System.out.printf("warmup %d s, measure %d s, model=%s%n", warmupSeconds, durationSeconds, model);
+        drive(endpoints, warmupSeconds);
+        recorders.values().forEach(Recorder::reset);
+        errors.clear();
+        long measureStart = System.nanoTime();
+        drive(endpoints, durationSeconds);
+        double seconds = (System.nanoTime() - measureStart) / 1e9;
+
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        recorders.forEach((name, recorder) -> histograms.put(name, recorder.getIntervalHistogram()));
+        String report = report(histograms, seconds);
+        System.out.print(report);
+        Path file = Path.of("build/reports/loadtest/report.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report);
+
+        List<String> violations = checkSlo(histograms);
+        violations.forEach(violation -> System.out.println("SLO VIOLATION " + violation));
+        return violations.isEmpty() ? 0 : 1;
+    }
+
+    private void drive(List<Endpoint> endpoints, int seconds) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(users);
+        if ("open".equals(model)) {
+            // open 모델 - 예정 시각에 맞춰 요청을 던지고, 예정 시각부터 응답까지를 기록한다.
+            long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            Random random = new Random();
+            for (long intended = System.nanoTime(); intended < end; intended += interval) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                Endpoint endpoint = endpoints.get(random.nextInt(endpoints.size()));
+                String path = endpoint.path(random);
+                long intendedStart = intended;
+                workers.execute(() -> call(endpoint, path, intendedStart));
+            }
+        } else {
+            // closed 모델 - 사용자마다 응답을 받으면 바로 다음 요청
+            for (int i = 0; i < users; i++) {
+                workers.execute(() -> {
+                    Random random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        Endpoint endpoint = endpoints.get(random.nextInt(endpoints.size()));
+                        call(endpoint, endpoint.path(random), System.nanoTime());
+                    }
+                });
+            }
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    private void call(Endpoint endpoint, String path, long startNanos) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            long micros = Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+            recorders.get(endpoint.name()).recordValue(micros);
+            if (response.statusCode() >= 400) {
+                errors.computeIfAbsent(endpoint.name(), key -> new AtomicLong()).incrementAndGet();
+            }
+        } catch (IOException | InterruptedException e) {
+            errors.computeIfAbsent(endpoint.name(), key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private String report(Map<String, Histogram> histograms, double seconds) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-16s %10s %10s %8s %8s %8s %8s %8s %8s%n",
+                "endpoint", "requests", "req/s", "errors", "p50", "p90", "p99", "p99.9", "max"));
+        histograms.forEach((name, histogram) -> report.append(String.format("%-16s %10d %10.1f %8d %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                name, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                errors.getOrDefault(name, new AtomicLong()).get(),
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0)));
+        report.append("(latency in ms)").append(System.lineSeparator());
+        return report.toString();
+    }
+
+    // loadTest.slo=/members:p99=200,/members/{id}:p99.9=50
+    private List<String> checkSlo(Map<String, Histogram> histograms) {
+        List<String> violations = new ArrayList<>();
+        for (String rule : slo.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            String[] endpointAndLimit = rule.trim().split(":p");
+            String[] percentileAndMillis = endpointAndLimit[1].split("=");
+            Histogram histogram = histograms.get(endpointAndLimit[0]);
+            double percentile = Double.parseDouble(percentileAndMillis[0]);
+            double limit = Double.parseDouble(percentileAndMillis[1]);
+            if (histogram == null) {
+                violations.add(rule + " (unknown endpoint)");
+            } else if (millis(histogram, percentile) > limit) {
+                violations.add(String.format("%s: p%s = %.2f ms > %.2f ms", endpointAndLimit[0], percentileAndMillis[0],
+                        millis(histogram, percentile), limit));
+            }
+        }
+        return violations;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private record Endpoint(String name, PathFactory pathFactory) {
+        String path(Random random) {
+            return pathFactory.path(random);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PathFactory {
+        String path(Random random);
+    }
+}
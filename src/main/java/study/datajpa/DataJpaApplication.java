@@ -3,6 +3,7 @@ package study.datajpa;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
@@ -11,6 +12,7 @@ import java.util.UUID;
 
 @EnableJpaAuditing // JPA Auditing 활성화
 @SpringBootApplication
+@ImportRuntimeHints(DataJpaRuntimeHints.class) // 네이티브 이미지 리플렉션/프록시 힌트
 public class DataJpaApplication {
 
 	public static void main(String[] args) {
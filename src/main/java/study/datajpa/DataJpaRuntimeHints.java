@@ -0,0 +1,70 @@
+package study.datajpa;
+
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.interceptor.TransactionalProxy;
+import study.datajpa.cache.DataChangeListener;
+import study.datajpa.dto.AgeSummaryDto;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberVersionDto;
+import study.datajpa.entitiy.*;
+import study.datajpa.repository.ItemRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.outbox.OutboxListener;
+import study.datajpa.search.SearchIndexListener;
+import study.datajpa.stat.MemberStatListener;
+import study.datajpa.util.P6SpySqlFormatter;
+
+import java.util.List;
+
+/*  GraalVM 네이티브 이미지용 런타임 힌트
+    리플렉션으로만 접근되어 AOT 분석에서 보이지 않는 타입들을 등록한다.
+    - 엔티티와 매핑된 상위 클래스: 하이버네이트가 필드/기본 생성자에 리플렉션으로 접근
+    - JPQL 생성자 표현식(new study.datajpa.dto.MemberDto(...))의 DTO
+    - P6SpyOptions.setLogMessageFormat 에 클래스 이름으로 등록하는 포매터와 P6Spy 모듈
+    - 스프링 데이터 리포지토리 JDK 프록시 (애스펙트가 한 번 더 감싸는 경우 포함) */
+public class DataJpaRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> ENTITIES = List.of(
+            Member.class, Team.class, Item.class, AgeStat.class, TeamStat.class, OutboxMessage.class, MemberArchive.class,
+            BaseEntity.class, BaseTimeEntity.class, JpaBaseEntity.class);
+
+    private static final List<String> P6SPY_TYPES = List.of(
+            "com.p6spy.engine.spy.P6SpyFactory",
+            "com.p6spy.engine.logging.P6LogFactory",
+            "com.p6spy.engine.spy.appender.Slf4JLogger");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : ENTITIES) {
+            hints.reflection().registerType(entity, MemberCategory.values());
+        }
+        for (Class<?> listener : List.of(MemberStatListener.class, SearchIndexListener.class, OutboxListener.class,
+                DataChangeListener.class)) {
+            hints.reflection().registerType(listener, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        hints.reflection().registerType(MemberDto.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(MemberVersionDto.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(AgeSummaryDto.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.reflection().registerType(P6SpySqlFormatter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        for (String type : P6SPY_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.resources().registerPattern("spy.properties");
+        hints.resources().registerPattern("db/snapshot/*.csv"); // SnapshotLoader (db/migration 은 Flyway 자동 설정이 등록)
+
+        for (Class<?> repository : List.of(MemberRepository.class, TeamRepository.class, ItemRepository.class)) {
+            hints.proxies().registerJdkProxy(repository, Repository.class, TransactionalProxy.class, Advised.class, DecoratingProxy.class);
+            hints.proxies().registerJdkProxy(repository, Repository.class, TransactionalProxy.class, SpringProxy.class, Advised.class, DecoratingProxy.class);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package study.datajpa.archive;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.cache.DataChangeListener;
+import study.datajpa.cache.DataChangeTracker;
+import study.datajpa.search.SearchIndex;
+import study.datajpa.shard.ShardTemplate;
+import study.datajpa.stat.MemberStatDelta;
+import study.datajpa.stat.MemberStatService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static study.datajpa.util.TransactionCallbacks.afterCommit;
+
+/*  회원 보관(archival) 처리
+    - archiveInactive: lastModifiedDate 가 inactive-days 보다 오래된 회원을 batch-size 씩 member_archive 로 옮긴다.
+      (idx_member_last_modified 로 대상만 읽고, 배치마다 트랜잭션 하나: 잠금 -> archive insert -> member delete)
+      샤딩을 켜면 샤드마다 차례로 옮긴다. (archiveModifiedBefore 는 현재 샤드만)
+    - archive(id): 회원 하나를 바로 보관 - 삭제 대신 쓰면 restore 로 되돌릴 수 있다. (soft delete)
+    - restore(id): 보관된 회원을 다시 member 테이블로 옮긴다.
+    JDBC 로 옮기므로 엔티티 리스너 대신 집계 테이블, 팀 회원 수, 검색 색인, 캐시 세대를 직접 맞춘다. */
+@Slf4j
+@Component
+public class MemberArchiver {
+
+    // 작업 큐 상태(work_status, claim_owner, claimed_at)도 같이 옮겨서 복원하면 보관 전 상태로 돌아간다.
+    private static final String COLUMNS = "member_id, username, age, team_id, created_by, last_modified_by, created_date, last_modified_date," +
+            " work_status, claim_owner, claimed_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberStatService memberStatService;
+    private final SearchIndex searchIndex;
+    private final DataChangeTracker dataChangeTracker;
+    private final ObjectProvider<ShardTemplate> shardTemplate;
+    private ScheduledExecutorService scheduler;
+
+    @Value("${datajpa.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${datajpa.archive.inactive-days:365}")
+    private long inactiveDays;
+
+    @Value("${datajpa.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${datajpa.archive.interval-minutes:60}")
+    private long intervalMinutes;
+
+    public MemberArchiver(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          MemberStatService memberStatService, SearchIndex searchIndex,
+                          DataChangeTracker dataChangeTracker, ObjectProvider<ShardTemplate> shardTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.memberStatService = memberStatService;
+        this.searchIndex = searchIndex;
+        this.dataChangeTracker = dataChangeTracker;
+        this.shardTemplate = shardTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archiveInactive();
+            } catch (RuntimeException e) {
+                log.warn("member archiving failed, will retry", e);
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public int archiveInactive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(inactiveDays);
+        return ShardTemplate.sumOnEachShard(shardTemplate, () -> archiveModifiedBefore(cutoff));
+    }
+
+    public int archiveModifiedBefore(LocalDateTime cutoff) {
+        int total = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> moveBatch(cutoff));
+            total += moved == null ? 0 : moved;
+            if (moved == null || moved < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("archived {} members modified before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    public boolean archive(Long memberId) {
+        Integer moved = transactionTemplate.execute(status -> move(lock("where member_id = ? for update", memberId)));
+        return moved != null && moved > 0;
+    }
+
+    public boolean restore(Long memberId) {
+        Boolean restored = transactionTemplate.execute(status -> {
+            List<Row> rows = jdbcTemplate.query("select member_id, age, team_id, username from member_archive where member_id = ?",
+                    (rs, rowNum) -> new Row(rs.getLong(1), rs.getInt(2), (Long) rs.getObject(3), rs.getString(4)), memberId);
+            if (rows.isEmpty()) {
+                return false;
+            }
+            Row row = rows.get(0);
+            Long teamId = row.teamId();
+            if (teamId != null && jdbcTemplate.queryForObject("select count(*) from team where team_id = ?", Long.class, teamId) == 0) {
+                teamId = null; // 보관 중에 팀이 삭제된 경우
+            }
+            jdbcTemplate.update("insert into member (" + COLUMNS + ")" +
+                    " select member_id, username, age, ?, created_by, last_modified_by, created_date, last_modified_date," +
+                    " work_status, claim_owner, claimed_at" +
+                    " from member_archive where member_id = ?", teamId, memberId);
+            jdbcTemplate.update("delete from member_archive where member_id = ?", memberId);
+
+            MemberStatDelta delta = new MemberStatDelta();
+            delta.added(row.age(), teamId);
+            memberStatService.apply(delta); // 집계 테이블, 팀 회원 수
+            long id = row.id();
+            String username = row.username();
+            afterCommit(() -> searchIndex.putMember(id, username));
+            DataChangeListener.changedAfterCommit(dataChangeTracker);
+            return true;
+        });
+        return Boolean.TRUE.equals(restored);
+    }
+
+    private int moveBatch(LocalDateTime cutoff) {
+        return move(lock("where last_modified_date < ? order by last_modified_date limit " + batchSize + " for update",
+                Timestamp.valueOf(cutoff)));
+    }
+
+    private List<Row> lock(String where, Object... args) {
+        return jdbcTemplate.query("select member_id, age, team_id from member " + where,
+                (rs, rowNum) -> new Row(rs.getLong(1), rs.getInt(2), (Long) rs.getObject(3), null), args);
+    }
+
+    private int move(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = rows.stream().map(Row::id).toList();
+        String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Object[] params = ids.toArray();
+
+        List<Object> insertParams = new ArrayList<>(ids.size() + 1);
+        insertParams.add(Timestamp.valueOf(LocalDateTime.now()));
+        insertParams.addAll(ids);
+        jdbcTemplate.update("insert into member_archive (" + COLUMNS + ", archived_date)" +
+                " select " + COLUMNS + ", ? from member where member_id in (" + in + ")", insertParams.toArray());
+        jdbcTemplate.update("delete from member where member_id in (" + in + ")", params);
+
+        // 배치 전체를 (나이, 팀) 버킷별로 합쳐서 한 번에 반영한다. (회원 수가 아니라 버킷 수만큼의 update)
+        MemberStatDelta delta = new MemberStatDelta();
+        rows.forEach(row -> delta.removed(row.age(), row.teamId()));
+        memberStatService.apply(delta); // 집계 테이블, 팀 회원 수
+
+        afterCommit(() -> ids.forEach(searchIndex::removeMember));
+        DataChangeListener.changedAfterCommit(dataChangeTracker);
+        return rows.size();
+    }
+
+    private record Row(long id, int age, Long teamId, String username) {
+    }
+}
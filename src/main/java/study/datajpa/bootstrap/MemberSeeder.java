@@ -0,0 +1,62 @@
+package study.datajpa.bootstrap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entitiy.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*  샘플 회원 데이터 적재
+    기존 MemberController.init(@PostConstruct)은 기동 중에 한 건씩 save 해서 준비 완료를 늦췄다.
+    애플리케이션이 준비된 뒤(ApplicationReadyEvent) saveAll 한 번(트랜잭션 하나 + JDBC 배치 insert)으로 적재하고,
+    datajpa.seed.async=true 이면 백그라운드 스레드에서 적재해 첫 요청을 막지 않는다. */
+@Slf4j
+@Component
+@Lazy(false)
+public class MemberSeeder {
+
+    private final MemberRepository memberRepository;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${datajpa.seed.count:100}")
+    private int count;
+
+    @Value("${datajpa.seed.async:false}")
+    private boolean async;
+
+    public MemberSeeder(MemberRepository memberRepository,
+                        @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.memberRepository = memberRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnReady() {
+        if (count <= 0) {
+            return;
+        }
+        if (async) {
+            taskExecutor.execute(this::seed);
+        } else {
+            seed();
+        }
+    }
+
+    public void seed() {
+        long start = System.currentTimeMillis();
+        List<Member> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            members.add(new Member("user" + i, i));
+        }
+        memberRepository.saveAll(members);
+        log.info("seeded {} members in {} ms", count, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.bootstrap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*  스키마는 ddl-auto: create 대신 Flyway 버전 마이그레이션(db/migration)으로 만든다. (하이버네이트는 validate 만)
+    datajpa.bootstrap.clean-on-start=true 이면 기동할 때마다 스키마를 지우고 처음부터 마이그레이션한다.
+    (개발, 테스트에서 create 와 같은 동작 - dev 프로필에서만 켜고, spring.flyway.clean-disabled=false 도 같이 필요하다) */
+@Configuration
+public class SchemaBootstrapConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${datajpa.bootstrap.clean-on-start:false}") boolean cleanOnStart) {
+        return flyway -> {
+            if (cleanOnStart) {
+                flyway.clean();
+            }
+            flyway.migrate();
+        };
+    }
+}
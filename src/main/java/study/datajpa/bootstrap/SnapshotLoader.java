@@ -0,0 +1,221 @@
+package study.datajpa.bootstrap;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.stat.MemberStatService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*  데이터 스냅샷 복원/생성 (샘플 데이터, 테스트 데이터셋)
+    - restore: datajpa.bootstrap.snapshot 위치의 <테이블>.csv 를 snapshot-tables 순서대로 H2 CSVREAD 로 한 문장씩 적재한다.
+      엔티티를 만들지 않고 DB가 직접 읽으므로 saveAll 보다 훨씬 빠르다. CSVREAD 는 DB 서버가 파일을 읽으므로
+      로컬(메모리, 파일, localhost TCP)이 아니면 실패하고, 그때는 JDBC 배치 insert 로 적재한다.
+      적재 후 시퀀스, 팀 회원 수, 집계 테이블을 맞춘다. (검색 색인은 ApplicationReadyEvent 에서 다시 만든다)
+      기동할 때는 대상 테이블이 모두 비어 있을 때만 복원한다. (clean-on-start 직후나 처음 만든 DB - 기존 데이터 위에 다시 넣지 않는다)
+    - snapshot: 현재 데이터를 같은 형식의 CSV 로 내보낸다. (H2 CSVWRITE) */
+@Slf4j
+@Component
+@Lazy(false)
+public class SnapshotLoader {
+
+    private static final int BATCH_SIZE = 1000;
+    // 테이블 -> (id 컬럼, 시퀀스) : 적재한 id 다음부터 발급되도록 시퀀스를 옮긴다.
+    private static final Map<String, String[]> SEQUENCES = Map.of(
+            "team", new String[]{"team_id", "team_seq"},
+            "member", new String[]{"member_id", "member_seq"},
+            "item", new String[]{"id", "item_seq"});
+    private static final int ALLOCATION_SIZE = 50;
+    // H2 가 CSVREAD 의 파일을 열지 못할 때의 오류 코드 (ErrorCode.IO_EXCEPTION_1, IO_EXCEPTION_2, FILE_NOT_FOUND_1)
+    private static final Set<Integer> FILE_ACCESS_ERRORS = Set.of(90028, 90031, 90124);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceLoader resourceLoader;
+    private final MemberStatService memberStatService;
+
+    @Value("${datajpa.bootstrap.snapshot:}")
+    private String snapshot;
+
+    @Value("${datajpa.bootstrap.snapshot-tables:team,member}")
+    private List<String> tables;
+
+    // EntityManagerFactory 를 주입받아 Flyway 마이그레이션, 하이버네이트 검증 이후에 복원한다.
+    public SnapshotLoader(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate, ResourceLoader resourceLoader,
+                          MemberStatService memberStatService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.resourceLoader = resourceLoader;
+        this.memberStatService = memberStatService;
+    }
+
+    @PostConstruct
+    public void restoreOnStart() {
+        if (snapshot.isBlank()) {
+            return;
+        }
+        for (String table : tables) {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("select exists(select 1 from " + table + ")", Boolean.class))) {
+                log.info("snapshot {} not restored: {} already has data", snapshot, table);
+                return;
+            }
+        }
+        restore(snapshot);
+    }
+
+    public void restore(String location) {
+        long start = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String table : tables) {
+                Resource resource = resourceLoader.getResource(location + "/" + table + ".csv");
+                if (resource.exists()) {
+                    log.info("restored {} rows into {}", load(table, resource), table);
+                }
+            }
+            // 스냅샷에 없는 감사 컬럼은 복원 시각으로 채운다.
+            jdbcTemplate.update("update member set created_date = coalesce(created_date, current_timestamp)," +
+                    " last_modified_date = coalesce(last_modified_date, current_timestamp)" +
+                    " where created_date is null or last_modified_date is null");
+            jdbcTemplate.update("update team set member_count = (select count(*) from member m where m.team_id = team.team_id)");
+            SEQUENCES.forEach((table, sequence) -> {
+                Long max = jdbcTemplate.queryForObject("select max(" + sequence[0] + ") from " + table, Long.class);
+                if (max != null) {
+                    // pooled 최적화기는 시퀀스 값 - 49 부터 쓰므로 allocation size 만큼 더 띄운다.
+                    jdbcTemplate.execute("alter sequence " + sequence[1] + " restart with " + (max + ALLOCATION_SIZE + 1));
+                }
+            });
+            memberStatService.rebuild();
+        });
+        log.info("snapshot {} restored in {} ms", location, System.currentTimeMillis() - start);
+    }
+
+    public void snapshot(Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String table : tables) {
+            String file = directory.resolve(table + ".csv").toAbsolutePath().toString();
+            jdbcTemplate.queryForList("call csvwrite(?, 'select * from " + table + " order by 1')", file);
+        }
+        log.info("snapshot of {} written to {}", tables, directory.toAbsolutePath());
+    }
+
+    private int load(String table, Resource resource) {
+        try {
+            List<String> columns = parseLine(readHeader(resource));
+            String columnList = String.join(", ", columns);
+            Path file = Files.createTempFile("snapshot-" + table, ".csv");
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+                return jdbcTemplate.update("insert into " + table + " (" + columnList + ")" +
+                        " select " + columnList + " from csvread(?)", file.toAbsolutePath().toString());
+            } catch (DataAccessException e) {
+                // DB 서버가 파일을 읽을 수 없는 경우만 대신 적재한다. (제약 조건 위반 등은 그대로 실패)
+                if (!isFileAccessError(e)) {
+                    throw e;
+                }
+                log.info("csvread not available for {} ({}), loading with jdbc batch", table, e.getMessage());
+                return batchInsert(table, columns, resource);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int batchInsert(String table, List<String> columns, Resource resource) throws IOException {
+        String sql = "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                batch.add(parseLine(line).toArray());
+                if (batch.size() == BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                count += batch.size();
+            }
+        }
+        return count;
+    }
+
+    private static boolean isFileAccessError(DataAccessException e) {
+        return e.getMostSpecificCause() instanceof SQLException sqlException
+                && FILE_ACCESS_ERRORS.contains(sqlException.getErrorCode());
+    }
+
+    private static String readHeader(Resource resource) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.readLine();
+        }
+    }
+
+    // CSVWRITE 형식 - 값은 큰따옴표로 감쌀 수 있고("" 는 따옴표 하나), 따옴표 없는 빈 값은 null
+    private static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                values.add(value.isEmpty() && !wasQuoted ? null : value.toString());
+                value.setLength(0);
+                wasQuoted = false;
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.isEmpty() && !wasQuoted ? null : value.toString());
+        return values;
+    }
+}
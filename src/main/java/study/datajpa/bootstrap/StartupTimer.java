@@ -0,0 +1,51 @@
+package study.datajpa.bootstrap;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 기동 시간 측정 - JVM 시작부터 준비 완료, 첫 요청 응답 완료까지의 시간을 로그로 남긴다. (오토스케일 판단용)
+@Slf4j
+@Component
+@Lazy(false)
+public class StartupTimer extends OncePerRequestFilter {
+
+    private final AtomicBoolean firstRequest = new AtomicBoolean(true);
+    private volatile long readyMillis = -1;
+    private volatile long firstRequestMillis = -1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("time to ready: {} ms since jvm start ({} ms in spring)", readyMillis, event.getTimeTaken().toMillis());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+        if (firstRequest.compareAndSet(true, false)) {
+            firstRequestMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            log.info("time to first request: {} ms since jvm start ({})", firstRequestMillis, request.getRequestURI());
+        }
+    }
+
+    public long getReadyMillis() {
+        return readyMillis;
+    }
+
+    public long getFirstRequestMillis() {
+        return firstRequestMillis;
+    }
+}
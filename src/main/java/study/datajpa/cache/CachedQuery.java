@@ -0,0 +1,15 @@
+package study.datajpa.cache;
+
+import java.lang.annotation.*;
+
+/*  리포지토리 조회 메서드 결과 캐시 (datajpa.query-cache.enabled=true 일 때)
+    메서드 + 인자로 결과를 보관하고, 회원/팀이 바뀌면(DataChangeTracker 세대) 무효가 된다.
+    결과는 여러 요청이 같이 읽으므로 DTO, 문자열 같은 불변 값만 반환하는 메서드에 붙인다. (엔티티 결과는 거부) */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CachedQuery {
+
+    // 세대가 그대로여도 이 시간이 지나면 다시 조회한다. (다른 노드, 직접 SQL 변경 대비)
+    long ttlSeconds() default 60;
+}
@@ -0,0 +1,24 @@
+package study.datajpa.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// 벌크 수정 쿼리는 엔티티 리스너를 거치지 않으므로 실행 후 세대를 올린다. (회원/팀 리포지토리의 @Modifying 메서드 전부)
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class DataChangeAspect {
+
+    private final DataChangeTracker tracker;
+
+    @AfterReturning("execution(int study.datajpa.repository.MemberRepository.bulkAgePlus(int))" +
+            " || execution(int study.datajpa.repository.MemberJpaRepository.bulkAgePlus(int))" +
+            " || execution(int study.datajpa.repository.TeamRepository.*(..))" +
+            " || (@annotation(org.springframework.data.jpa.repository.Modifying)" +
+            " && execution(* study.datajpa.repository.MemberRepository.*(..)))")
+    public void afterBulkUpdate() {
+        DataChangeListener.changedAfterCommit(tracker);
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpa.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.util.TransactionScoped;
+
+// Member, Team 엔티티 리스너 - 커밋 이후 DataChangeTracker 세대를 올린다.
+public class DataChangeListener {
+
+    private final ObjectProvider<DataChangeTracker> tracker;
+
+    public DataChangeListener(ObjectProvider<DataChangeTracker> tracker) {
+        this.tracker = tracker;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        changedAfterCommit(tracker.getObject());
+    }
+
+    // 현재 트랜잭션에서 커밋되지 않은 회원/팀 변경이 있는지
+    public static boolean hasPendingChanges() {
+        return TransactionScoped.find(ChangedAfterCommit.class) != null;
+    }
+
+    /*  트랜잭션당 한 번만 등록한다. 트랜잭션이 없으면 바로 올린다.
+        동기화 목록에서 찾으므로 REQUIRES_NEW 안쪽 트랜잭션은 바깥 트랜잭션의 등록과 별개로 자기 커밋 때 올린다. */
+    public static void changedAfterCommit(DataChangeTracker tracker) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            tracker.changed();
+            return;
+        }
+        TransactionScoped.getOrRegister(ChangedAfterCommit.class, () -> new ChangedAfterCommit(tracker));
+    }
+
+    private record ChangedAfterCommit(DataChangeTracker tracker) implements TransactionSynchronization {
+        @Override
+        public void afterCommit() {
+            tracker.changed();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*  회원/팀 데이터 변경 세대(generation) - 커밋된 변경이 있을 때마다 1씩 증가한다.
+    메모리 캐시는 저장 시점의 세대를 같이 보관하고, 세대가 바뀌었으면 무효로 본다. (쓰기 기반 무효화)
+    이 프로세스를 거친 변경만 알 수 있으므로 여러 노드에서 같은 DB를 쓰면 캐시를 켜지 않는다. */
+@Component
+public class DataChangeTracker {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void changed() {
+        generation.incrementAndGet();
+    }
+}
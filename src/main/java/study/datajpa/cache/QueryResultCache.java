@@ -0,0 +1,145 @@
+package study.datajpa.cache;
+
+import jakarta.persistence.Entity;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.datajpa.shard.ShardContext;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/*  @CachedQuery 결과 저장소
+    - 크기 제한: 접근 순서 LinkedHashMap (가장 오래 안 쓴 것부터 제거)
+    - 무효화: 저장할 때의 DataChangeTracker 세대가 현재 세대와 다르거나 TTL 이 지나면 다시 조회한다.
+      조회 시작 전의 세대로 저장하므로, 조회 도중 커밋된 변경이 있으면 그 결과는 바로 무효가 된다.
+    - 동시 조회 한 번(single-flight): 같은 키를 여러 스레드가 동시에 놓치면 한 스레드만 DB를 조회하고 나머지는 결과를 기다린다.
+    - 결과는 같은 타입의 불변 스냅샷(수정 불가 List / Set / SortedSet)으로 보관하고, 엔티티가 섞여 있으면 캐시하지 않고 실패시킨다.
+      반환 타입을 유지할 수 없는 다른 컬렉션(Queue 등)은 캐시하지 않고 실패시킨다. */
+@Component
+public class QueryResultCache {
+
+    private final DataChangeTracker tracker;
+    private final boolean enabled;
+    private final Map<Key, Entry> cache;
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public QueryResultCache(DataChangeTracker tracker,
+                            @Value("${datajpa.query-cache.enabled:false}") boolean enabled,
+                            @Value("${datajpa.query-cache.max-entries:500}") int maxEntries) {
+        this.tracker = tracker;
+        this.enabled = enabled;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Object get(Method method, Object[] args, long ttlSeconds, QueryLoader loader) throws Throwable {
+        Key key = new Key(ShardContext.current(), method, Arrays.asList(args));
+        long generation = tracker.generation();
+        Entry entry = cache.get(key);
+        if (entry != null && entry.generation() == generation && System.nanoTime() < entry.expiresAt()) {
+            hits.increment();
+            return entry.value();
+        }
+        misses.increment();
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            Object value = snapshot(loader.load());
+            cache.put(key, new Entry(generation, System.nanoTime() + ttlSeconds * 1_000_000_000L, value));
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private static Object await(CompletableFuture<Object> inFlight) throws Throwable {
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object snapshot(Object result) {
+        if (result instanceof Collection<?> collection) {
+            collection.forEach(QueryResultCache::checkCacheable);
+            if (collection instanceof List<?> list) {
+                return Collections.unmodifiableList(new ArrayList<>(list));
+            }
+            if (collection instanceof SortedSet<?> sortedSet) {
+                return Collections.unmodifiableSortedSet(new TreeSet<>(sortedSet));
+            }
+            if (collection instanceof Set<?> set) {
+                return Collections.unmodifiableSet(new LinkedHashSet<>(set)); // 순서 유지
+            }
+            throw new IllegalStateException("@CachedQuery can only cache List or Set results: " + collection.getClass());
+        }
+        if (result instanceof Slice<?> slice) {
+            slice.getContent().forEach(QueryResultCache::checkCacheable); // Page/Slice 는 내용이 불변 리스트
+            return slice;
+        }
+        if (result instanceof Optional<?> optional) {
+            optional.ifPresent(QueryResultCache::checkCacheable);
+            return optional;
+        }
+        checkCacheable(result);
+        return result;
+    }
+
+    private static void checkCacheable(Object value) {
+        if (value instanceof HibernateProxy || (value != null && value.getClass().isAnnotationPresent(Entity.class))) {
+            throw new IllegalStateException("@CachedQuery cannot cache managed entities, return a DTO instead: " + value.getClass());
+        }
+        if (value instanceof java.util.stream.BaseStream<?, ?> || value instanceof Iterator<?>) {
+            throw new IllegalStateException("@CachedQuery cannot cache streams");
+        }
+    }
+
+    @FunctionalInterface
+    public interface QueryLoader {
+        Object load() throws Throwable;
+    }
+
+    // 샤딩을 켜면 같은 메서드라도 샤드마다 결과가 다르다.
+    private record Key(String shard, Method method, List<Object> args) {
+    }
+
+    private record Entry(long generation, long expiresAt, Object value) {
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.cache;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*  @CachedQuery 가 붙은 리포지토리 메서드를 QueryResultCache 로 감싼다.
+    이 트랜잭션에서 이미 회원/팀을 바꿨으면 아직 커밋 전이라 캐시에 반영되지 않았으므로 DB를 직접 조회한다.
+    - flush 된 변경: DataChangeListener 가 트랜잭션에 표시해 둔다.
+    - 아직 flush 전인 변경(변경 감지, persist): 세션이 dirty 이면 쿼리가 자동 flush 하도록 캐시를 거치지 않는다. */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class QueryResultCacheAspect {
+
+    private final QueryResultCache queryResultCache;
+    private final EntityManager em;
+
+    @Around("@annotation(cachedQuery)")
+    public Object cached(ProceedingJoinPoint joinPoint, CachedQuery cachedQuery) throws Throwable {
+        if (!queryResultCache.isEnabled() || DataChangeListener.hasPendingChanges() || hasUnflushedChanges()) {
+            return joinPoint.proceed();
+        }
+        return queryResultCache.get(((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getArgs(),
+                cachedQuery.ttlSeconds(), joinPoint::proceed);
+    }
+
+    // 트랜잭션 밖에서는 공유 EntityManager 가 호출마다 새로 만들어지므로 볼 것이 없다.
+    private boolean hasUnflushedChanges() {
+        return TransactionSynchronizationManager.isActualTransactionActive() && em.unwrap(Session.class).isDirty();
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.config;
+
+import org.hibernate.Interceptor;
+import org.hibernate.Transaction;
+
+import java.util.Iterator;
+import java.util.List;
+
+// 세션 팩토리에는 인터셉터를 하나만 등록할 수 있으므로, 이 프로젝트에서 쓰는 콜백만 순서대로 위임한다.
+public class CompositeInterceptor implements Interceptor {
+
+    private final List<Interceptor> interceptors;
+
+    public CompositeInterceptor(List<Interceptor> interceptors) {
+        this.interceptors = List.copyOf(interceptors);
+    }
+
+    @Override
+    public void postFlush(Iterator<Object> entities) {
+        interceptors.forEach(interceptor -> interceptor.postFlush(entities));
+    }
+
+    @Override
+    public void beforeTransactionCompletion(Transaction tx) {
+        interceptors.forEach(interceptor -> interceptor.beforeTransactionCompletion(tx));
+    }
+
+    @Override
+    public void afterTransactionCompletion(Transaction tx) {
+        interceptors.forEach(interceptor -> interceptor.afterTransactionCompletion(tx));
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.outbox.OutboxInterceptor;
+import study.datajpa.outbox.OutboxRecorder;
+import study.datajpa.stat.MemberStatInterceptor;
+import study.datajpa.stat.MemberStatService;
+
+import java.util.List;
+
+@Configuration
+public class HibernateConfig {
+
+    /*  세션 팩토리 범위 인터셉터
+        - MemberStatInterceptor: flush 직후 집계/팀 회원 수 증감 반영
+        - OutboxInterceptor: 커밋 직전에 아웃박스 flush */
+    @Bean
+    public HibernatePropertiesCustomizer interceptorCustomizer(ObjectProvider<MemberStatService> memberStatService,
+                                                               ObjectProvider<OutboxRecorder> outboxRecorder) {
+        return properties -> properties.put(AvailableSettings.INTERCEPTOR, new CompositeInterceptor(List.of(
+                new MemberStatInterceptor(memberStatService),
+                new OutboxInterceptor(outboxRecorder))));
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.datajpa.web.MemberConditionalRequestInterceptor;
+import study.datajpa.web.QueryBudgetInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final MemberConditionalRequestInterceptor memberConditionalRequestInterceptor;
+    private final QueryBudgetInterceptor queryBudgetInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(memberConditionalRequestInterceptor)
+                .addPathPatterns("/members", "/members/{id}", "/members2/{id}")
+                .excludePathPatterns("/members/search", "/members/search/**", "/members/export");
+        // afterCompletion 은 역순으로 호출되므로 가장 나중에 등록해야 OSIV 가 EntityManager 를 닫기 전에 실행된다.
+        registry.addInterceptor(queryBudgetInterceptor)
+                .order(Ordered.LOWEST_PRECEDENCE);
+    }
+
+    /*  Accept: application/cbor 요청은 JSON 대신 CBOR(바이너리 JSON)로 응답한다.
+        스프링 부트가 관리하는 ObjectMapper 설정(모듈, 날짜 형식 등)을 그대로 쓰고 인코딩만 바꾼다.
+        HttpMessageConverter 빈은 부트가 기본 컨버터 목록에 추가한다. */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,59 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.bootstrap.SnapshotLoader;
+import study.datajpa.index.IndexAdvice;
+import study.datajpa.index.IndexAdvisor;
+import study.datajpa.lock.LockDiagnostics;
+import study.datajpa.search.SearchIndex;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final IndexAdvisor indexAdvisor;
+    private final SearchIndex searchIndex;
+    private final LockDiagnostics lockDiagnostics;
+    private final SnapshotLoader snapshotLoader;
+
+    @Value("${datajpa.bootstrap.snapshot-export-dir:build/snapshot}")
+    private String snapshotExportDir;
+
+    @GetMapping("/admin/index-advice")
+    public List<String> indexAdvice() {
+        return indexAdvisor.analyze().stream()
+                .map(IndexAdvice::toString)
+                .toList();
+    }
+
+    @PostMapping("/admin/search-index/rebuild")
+    public String rebuildSearchIndex() {
+        searchIndex.rebuild();
+        return "ok";
+    }
+
+    // 현재 데이터를 스냅샷 CSV 로 내보낸다. (db/snapshot 에 복사하면 다음 기동부터 이 데이터로 시작)
+    @PostMapping("/admin/snapshot")
+    public String snapshot() {
+        snapshotLoader.snapshot(Path.of(snapshotExportDir));
+        return "ok";
+    }
+
+    @GetMapping("/admin/locks")
+    public List<LockDiagnostics.LockStats> lockStats() {
+        return lockDiagnostics.stats();
+    }
+
+    @GetMapping("/admin/locks/reports")
+    public List<LockDiagnostics.LockWaitReport> lockReports() {
+        return lockDiagnostics.reports();
+    }
+
+}
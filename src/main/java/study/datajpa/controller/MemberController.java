@@ -1,26 +1,40 @@
 package study.datajpa.controller;
 
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entitiy.Member;
+import study.datajpa.export.MemberExporter;
 import study.datajpa.repository.MemberRepository;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
     private final MemberRepository memberRepository;
+    private final MemberExporter memberExporter;
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
-        return memberRepository.findById(id).get().getUsername();
+        // 보관(archive)된 회원도 조회되도록 보관 테이블까지 읽는다.
+        return findUsernameIncludingArchived(id);
     }
 
     /*     도메인 클래스 컨버터
@@ -31,10 +45,17 @@ public class MemberController {
          (파라미터로 받은 엔티티는 단순 조회용으로만 사용해야 한다.)
          컨트롤러에서 엔티티를 생성하지 말자.
          엔티티를 외부에 노출하지 말자.
-         트랜잭션이 있는 서비스 계층에 식별자( id )와 변경할 데이터를 명확하게 전달하자.*/
+         트랜잭션이 있는 서비스 계층에 식별자( id )와 변경할 데이터를 명확하게 전달하자.
+         도메인 클래스 컨버터는 member 테이블만 찾으므로 보관된 회원이 null 이 된다. -> 식별자로 받아서 보관 테이블까지 조회한다. */
     @GetMapping("/members2/{id}")
-    public String findMember2(@PathVariable("id") Member member) {
-        return member.getUsername();
+    public String findMember2(@PathVariable("id") Long id) {
+        return findUsernameIncludingArchived(id);
+    }
+
+    private String findUsernameIncludingArchived(Long id) {
+        return memberRepository.findDtoByIdIncludingArchived(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND))
+                .getUsername();
     }
 
     @GetMapping("/members")
@@ -43,12 +64,36 @@ public class MemberController {
         return page.map(MemberDto::new);
     }
 
-    @PostConstruct
-    public void init() {
-        for (int i = 0; i < 100; i++) {
-            memberRepository.save(new Member("user" + i, i));
-        }
+    @GetMapping("/members/search/username")
+    public List<MemberDto> searchByUsername(@RequestParam("q") String q,
+                                            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return memberRepository.searchByUsername(q, Math.min(limit, 1000)).stream()
+                .map(MemberDto::new)
+                .toList();
+    }
+
+    /*  회원 전체 내보내기 - Accept: application/cbor 이면 CBOR, 아니면 JSON 배열
+        조회 결과를 읽는 즉시 응답 스트림에 쓴다. (StreamingResponseBody) */
+    @GetMapping(value = "/members/export", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_JSON_VALUE) String accept) {
+        boolean cbor = MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_CBOR::isCompatibleWith);
+        StreamingResponseBody body = out -> memberExporter.export(out, cbor);
+        return ResponseEntity.ok()
+                .contentType(cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 
+    // 동적 검색 - lastId 가 있으면 키셋 페이징, 없으면 count 쿼리 없는 Slice
+    @GetMapping("/members/search")
+    public Slice<MemberDto> search(MemberSearchCondition condition,
+                                   @RequestParam(value = "lastId", required = false) Long lastId,
+                                   @PageableDefault(size = 20) Pageable pageable) {
+        if (lastId != null) {
+            return memberRepository.searchAfter(condition, lastId, pageable.getSort(), pageable.getPageSize());
+        }
+        return memberRepository.search(condition, pageable);
     }
 
 }
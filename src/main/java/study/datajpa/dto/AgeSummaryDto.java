@@ -0,0 +1,22 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class AgeSummaryDto {
+
+    private long memberCount;
+    private Integer minAge;
+    private Integer maxAge;
+    private double avgAge;
+
+    // 집계 테이블(AgeStat) 위에서 계산하므로 회원 테이블 크기와 무관하다.
+    public AgeSummaryDto(Long memberCount, Integer minAge, Integer maxAge, Long ageSum) {
+        this.memberCount = memberCount == null ? 0 : memberCount;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.avgAge = this.memberCount == 0 ? 0 : (double) ageSum / this.memberCount;
+    }
+}
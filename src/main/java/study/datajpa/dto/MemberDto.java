@@ -1,17 +1,16 @@
 package study.datajpa.dto;
 
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 import study.datajpa.entitiy.Member;
 
-@Getter @Setter
+// 불변 - 조회 결과 캐시(@CachedQuery)에 보관된 인스턴스를 여러 요청이 같이 읽는다.
+@Getter
 public class MemberDto {
 
-    private Long id;
-    private String username;
-    private String teamName;
+    private final Long id;
+    private final String username;
+    private final String teamName;
 
     public MemberDto(Long id, String username, String teamName) {
         this.id = id;
@@ -22,5 +21,6 @@ public class MemberDto {
     public MemberDto(Member member) {
         this.id = member.getId();
         this.username = member.getUsername();
+        this.teamName = null;
     }
 }
@@ -0,0 +1,25 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// 회원 동적 검색 조건 - null 인 필드는 조건에서 빠진다.
+@Getter @Setter
+public class MemberSearchCondition {
+
+    private String usernamePrefix;
+    private Integer ageGoe;
+    private Integer ageLoe;
+    private Long teamId;
+    private String teamName;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+}
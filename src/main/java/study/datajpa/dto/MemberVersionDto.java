@@ -0,0 +1,22 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/*  회원 테이블 전체 버전 - 회원 수, 마지막 수정 시각, 마지막 id (max 는 idx_member_last_modified, PK 인덱스로 바로 읽는다.)
+    DB에 저장된 값으로만 만들어서 재시작하거나 다른 노드가 응답해도 같은 데이터면 같은 버전이다.
+    삭제는 회원 수로, 삭제 + 추가는 마지막 id 로, 수정은 마지막 수정 시각으로 바뀐다. */
+@Getter
+public class MemberVersionDto {
+
+    private final long count;
+    private final LocalDateTime lastModifiedDate;
+    private final long maxId;
+
+    public MemberVersionDto(Long count, LocalDateTime lastModifiedDate, Long maxId) {
+        this.count = count == null ? 0 : count;
+        this.lastModifiedDate = lastModifiedDate;
+        this.maxId = maxId == null ? 0 : maxId;
+    }
+}
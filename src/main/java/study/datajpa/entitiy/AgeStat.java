@@ -0,0 +1,25 @@
+package study.datajpa.entitiy;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+// 나이별 회원 수 집계 테이블 - MemberStatService 가 JDBC로 갱신하고, JPA 로는 읽기만 한다.
+@Entity
+@Immutable
+@Table(name = "member_age_stat")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class AgeStat {
+
+    @Id
+    private int age;
+    private long memberCount;
+
+}
@@ -2,8 +2,23 @@ package study.datajpa.entitiy;
 
 import jakarta.persistence.*;
 import lombok.*;
+import study.datajpa.cache.DataChangeListener;
+import study.datajpa.outbox.OutboxListener;
+import study.datajpa.search.SearchIndexListener;
+import study.datajpa.stat.MemberStatListener;
+
+import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners({MemberStatListener.class, SearchIndexListener.class, OutboxListener.class,
+        DataChangeListener.class}) // 집계 테이블, 검색 색인, 아웃박스, 캐시 무효화
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"), // findListByUsername, findLockByUsername ...
+        @Index(name = "idx_member_age", columnList = "age"), // findByAge, bulkAgePlus
+        @Index(name = "idx_member_last_modified", columnList = "last_modified_date"), // 목록 ETag (max)
+        @Index(name = "idx_member_work_status", columnList = "work_status, member_id") // 작업 큐 claim
+})
+@AttributeOverride(name = "lastModifiedDate", column = @Column(name = "last_modified_date"))
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -20,8 +35,24 @@ public class Member extends BaseEntity{
     @ManyToOne(fetch = FetchType.LAZY) // 지연 로딩
     @JoinColumn(name = "team_id")
     @ToString.Exclude // 연관 관계가 걸린 필드는 ToString에서 제외
+    @Setter(AccessLevel.NONE) // 팀 변경은 changeTeam 으로만 (Team.members 유지)
     private Team team;
 
+    /*  작업 큐 상태 - MemberWorkQueue 가 JDBC 로만 바꾸고, 엔티티 쪽에서는 읽기만 한다.
+        (insert/update 에서 빠지므로 엔티티 수정이 큐 상태를 덮어쓰지 않는다) */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "work_status", length = 16, insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private MemberWorkStatus workStatus;
+
+    @Column(name = "claim_owner", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private String claimOwner;
+
+    @Column(name = "claimed_at", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private LocalDateTime claimedAt;
+
     public Member(String userName, int age, Team team) {
         this.username = userName;
         this.age = age;
@@ -40,8 +71,18 @@ public class Member extends BaseEntity{
     }
 
     public void changeTeam(Team team) {
+        if (this.team != null) {
+            this.team.removeMember(this); // 기존 팀에서 나를 제거
+        }
         this.team = team; // 내 자신의 팀을 바꿔줌
-        team.getMembers().add(this); // 팀에도 나를 변경 해줌
+        team.addMember(this); // 팀에도 나를 변경 해줌 (members 컬렉션은 초기화하지 않음)
+    }
+
+    @PreRemove // remove 되기 전에 실행
+    public void preRemove() {
+        if (team != null) {
+            team.removeMember(this);
+        }
     }
 
 }
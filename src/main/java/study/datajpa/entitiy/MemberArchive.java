@@ -0,0 +1,52 @@
+package study.datajpa.entitiy;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/*  보관(archive) 회원 - 오래 수정되지 않은 회원을 MemberArchiver 가 member 테이블에서 옮겨온다.
+    member 테이블(hot)에는 활성 회원만 남아서 인덱스와 작업 집합이 작게 유지된다.
+    팀이 지워져도 보관 데이터는 남아야 하므로 team_id 는 FK 없이 값으로만 보관한다. */
+@Entity
+@Immutable
+@Table(name = "member_archive")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberArchive {
+
+    @Id
+    @Column(name = "member_id")
+    private Long id;
+    private String username;
+    private int age;
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private String createdBy;
+    private String lastModifiedBy;
+    private LocalDateTime createdDate;
+    @Column(name = "last_modified_date")
+    private LocalDateTime lastModifiedDate;
+    private LocalDateTime archivedDate;
+
+    // 보관 당시의 작업 큐 상태 (복원할 때 그대로 되돌린다)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "work_status", length = 16)
+    private MemberWorkStatus workStatus;
+    @Column(name = "claim_owner")
+    private String claimOwner;
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+}
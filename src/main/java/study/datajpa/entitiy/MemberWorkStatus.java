@@ -0,0 +1,6 @@
+package study.datajpa.entitiy;
+
+// 회원 작업 큐 상태 (null 이면 큐에 없음) - MemberWorkQueue 만 변경한다.
+public enum MemberWorkStatus {
+    PENDING, CLAIMED, DONE, FAILED
+}
@@ -0,0 +1,34 @@
+package study.datajpa.entitiy;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/*  트랜잭션 아웃박스 - 트랜잭션 하나에서 발생한 변경 이벤트들을 JSON 배열 한 건(payload)으로 저장한다.
+    OutboxRecorder 가 엔티티 변경과 같은 트랜잭션 안에서 JDBC 로 insert 하고, OutboxRelay 가 인덱스로 미전송 건을 읽는다. */
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_delivered", columnList = "delivered_date, id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class OutboxMessage {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private int eventCount;
+
+    @Lob
+    private String payload;
+
+    @Column(updatable = false)
+    private LocalDateTime createdDate;
+
+    @Column(name = "delivered_date")
+    private LocalDateTime deliveredDate;
+
+}
@@ -2,11 +2,15 @@ package study.datajpa.entitiy;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
+import study.datajpa.cache.DataChangeListener;
+import study.datajpa.search.SearchIndexListener;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners({SearchIndexListener.class, DataChangeListener.class}) // 검색 색인, 캐시 무효화
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,7 +28,31 @@ public class Team {
     @ToString.Exclude
     private List<Member> members = new ArrayList<>();
 
+    /*  팀 소속 회원 수 (비정규화) - members 컬렉션을 로딩하지 않고 회원 수를 조회하기 위해 사용
+        변경 감지로 덮어쓰지 않도록 insert/update 에서 빼고(기본값 0), 회원 insert/update/delete 가 flush 된 뒤
+        MemberStatService 가 "member_count = member_count + ?" 로 DB에서 원자적으로 증감한다. */
+    @Column(nullable = false, insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private int memberCount;
+
     public Team(String name) {
         this.name = name;
     }
+
+    /*  mappedBy 쪽 List(bag)는 초기화되지 않은 상태에서 add 하면 컬렉션을 로딩하지 않고 작업을 큐에 쌓아둔다.
+        remove 는 컬렉션을 초기화하므로, 이미 초기화된 경우에만 컬렉션에서 제거한다. */
+    public void addMember(Member member) {
+        members.add(member);
+    }
+
+    public void removeMember(Member member) {
+        if (Hibernate.isInitialized(members)) {
+            members.remove(member);
+        }
+    }
+
+    // 회원 변경이 flush 된 뒤 MemberStatListener 가 영속성 컨텍스트의 값도 DB와 같이 맞춘다.
+    public void applyMemberCountDelta(int delta) {
+        memberCount += delta;
+    }
 }
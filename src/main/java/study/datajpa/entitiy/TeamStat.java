@@ -0,0 +1,33 @@
+package study.datajpa.entitiy;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+// 팀별 회원 수, 나이 최소/최대/합계 집계 테이블 - MemberStatService 가 JDBC로 갱신하고, JPA 로는 읽기만 한다.
+@Entity
+@Immutable
+@Table(name = "team_stat")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStat {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+    private long memberCount;
+    private Integer minAge;
+    private Integer maxAge;
+    private long ageSum;
+
+    public double getAvgAge() {
+        return memberCount == 0 ? 0 : (double) ageSum / memberCount;
+    }
+}
@@ -0,0 +1,54 @@
+package study.datajpa.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/*  회원 전체 내보내기 - 조회 결과 커서를 읽으면서 바로 출력 스트림에 쓴다.
+    전체 목록을 메모리에 만들지 않고, ObjectMapper 의 리플렉션 직렬화 대신 필드를 직접 쓴다. */
+@Component
+public class MemberExporter {
+
+    private final MemberRepository memberRepository;
+    private final JsonFactory jsonFactory;
+    private final JsonFactory cborFactory = new CBORFactory();
+
+    public MemberExporter(MemberRepository memberRepository, ObjectMapper objectMapper) {
+        this.memberRepository = memberRepository;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Transactional(readOnly = true)
+    public long export(OutputStream out, boolean cbor) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = (cbor ? cborFactory : jsonFactory).createGenerator(out);
+             Stream<MemberDto> members = memberRepository.streamMemberDto()) {
+            generator.writeStartArray();
+            Iterator<MemberDto> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                writeMember(generator, iterator.next());
+                count++;
+            }
+            generator.writeEndArray();
+        }
+        return count;
+    }
+
+    public static void writeMember(JsonGenerator generator, MemberDto member) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", member.getId());
+        generator.writeStringField("username", member.getUsername());
+        generator.writeStringField("teamName", member.getTeamName());
+        generator.writeEndObject();
+    }
+}
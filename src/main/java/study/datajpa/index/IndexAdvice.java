@@ -0,0 +1,15 @@
+package study.datajpa.index;
+
+public record IndexAdvice(Type type, String table, String column, String detail) {
+
+    public enum Type {
+        MISSING_INDEX, // 리포지토리 메서드 조건 컬럼에 인덱스가 없음
+        FULL_SCAN,     // 수집된 SQL 의 실행 계획이 테이블 풀 스캔
+        UNUSED_INDEX   // 수집된 SQL 의 실행 계획 어디에서도 쓰이지 않은 인덱스
+    }
+
+    @Override
+    public String toString() {
+        return "[" + type + "] " + table + (column == null ? "" : "." + column) + " - " + detail;
+    }
+}
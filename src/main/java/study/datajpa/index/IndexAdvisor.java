@@ -0,0 +1,218 @@
+package study.datajpa.index;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.datajpa.util.SqlStatementCollector;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*  인덱스 어드바이저
+    1. 스프링 데이터 리포지토리의 메서드 이름 쿼리(PartTree)에서 조건 컬럼을 뽑아, 첫 번째 컬럼으로 시작하는 인덱스가 있는지 확인한다.
+    2. P6Spy 로 수집한 SQL(SqlStatementCollector)을 H2 에서 EXPLAIN 해서 테이블 풀 스캔과 사용된 인덱스를 찾는다.
+    3. 어느 실행 계획에서도 쓰이지 않은 인덱스를 보고한다. (PK, FK 제약 조건용 인덱스는 제외)
+    datajpa.index-advisor.enabled=true 이면 애플리케이션 기동 직후 로그로 보고하고, 그 외에는 analyze() 를 직접 호출한다. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexAdvisor {
+
+    private static final Pattern INDEX_USE = Pattern.compile("/\\* [\\w\"]+\\.\"?(\\w+)\"?: ");
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* [\\w\"]+\\.\"?(\\w+)\"?\\.tableScan");
+    // H2 2.x 의 EXPLAIN 은 절마다 줄을 바꾸므로 공백이 아니라 단어 경계로 찾는다.
+    private static final Pattern WHERE = Pattern.compile("\\bwhere\\b", Pattern.CASE_INSENSITIVE);
+
+    private final ListableBeanFactory beanFactory;
+    private final EntityManagerFactory emf;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${datajpa.index-advisor.enabled:false}")
+    private boolean reportOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportOnStartup() {
+        if (reportOnStartup) {
+            analyze().forEach(advice -> log.warn("index advisor {}", advice));
+        }
+    }
+
+    public List<IndexAdvice> analyze() {
+        Map<String, List<IndexInfo>> indexes = loadIndexes();
+        List<IndexAdvice> advices = new ArrayList<>();
+
+        // 1. 리포지토리 메서드 시그니처
+        for (AccessPath path : repositoryAccessPaths()) {
+            boolean covered = indexes.getOrDefault(path.table(), List.of()).stream()
+                    .anyMatch(index -> index.firstColumn().equalsIgnoreCase(path.column()));
+            if (!covered) {
+                advices.add(new IndexAdvice(IndexAdvice.Type.MISSING_INDEX, path.table(), path.column(), path.method()));
+            }
+        }
+
+        // 2. 수집된 SQL 실행 계획
+        if (!isH2()) {
+            return advices;
+        }
+        Set<String> usedIndexes = new HashSet<>();
+        for (SqlStatementCollector.StatementStat stat : SqlStatementCollector.snapshot()) {
+            String plan = explain(stat.getSampleSql());
+            if (plan == null) {
+                continue;
+            }
+            Matcher used = INDEX_USE.matcher(plan);
+            while (used.find()) {
+                usedIndexes.add(used.group(1).toUpperCase(Locale.ROOT));
+            }
+            if (!WHERE.matcher(plan).find()) {
+                continue; // 조건 없는 전체 조회는 인덱스로 줄일 수 없다.
+            }
+            Matcher scan = TABLE_SCAN.matcher(plan);
+            while (scan.find()) {
+                advices.add(new IndexAdvice(IndexAdvice.Type.FULL_SCAN, scan.group(1).toLowerCase(Locale.ROOT), null,
+                        stat.getCount() + " executions: " + stat.getPrepared()));
+            }
+        }
+
+        // 3. 사용되지 않은 인덱스
+        for (List<IndexInfo> tableIndexes : indexes.values()) {
+            for (IndexInfo index : tableIndexes) {
+                if (!index.constraintIndex() && !usedIndexes.contains(index.name().toUpperCase(Locale.ROOT))) {
+                    advices.add(new IndexAdvice(IndexAdvice.Type.UNUSED_INDEX, index.table(), index.firstColumn(), index.name()));
+                }
+            }
+        }
+        return advices;
+    }
+
+    private List<AccessPath> repositoryAccessPaths() {
+        Repositories repositories = new Repositories(beanFactory);
+        List<AccessPath> paths = new ArrayList<>();
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRepositoryInformationFor(domainType).orElse(null);
+            if (information == null) {
+                continue;
+            }
+            for (Method method : information.getQueryMethods()) {
+                if (AnnotatedElementUtils.hasAnnotation(method, Query.class)) {
+                    continue; // @Query 는 수집된 SQL 의 실행 계획으로 확인한다.
+                }
+                PartTree tree;
+                try {
+                    tree = new PartTree(method.getName(), domainType);
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                String methodName = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                for (Part part : tree.getParts()) {
+                    PropertyPath property = part.getProperty().getLeafProperty();
+                    String[] columns = columnsOf(property.getOwningType().getType(), property.getSegment());
+                    if (columns != null && columns.length > 0) {
+                        paths.add(new AccessPath(tableOf(property.getOwningType().getType()), columns[0].toLowerCase(Locale.ROOT), methodName));
+                    }
+                }
+            }
+        }
+        return paths.stream().distinct().toList();
+    }
+
+    private String[] columnsOf(Class<?> entityType, String property) {
+        AbstractEntityPersister persister = persister(entityType);
+        return persister == null ? null : persister.getPropertyColumnNames(property);
+    }
+
+    private String tableOf(Class<?> entityType) {
+        AbstractEntityPersister persister = persister(entityType);
+        return persister == null ? entityType.getSimpleName().toLowerCase(Locale.ROOT) : persister.getTableName().toLowerCase(Locale.ROOT);
+    }
+
+    private AbstractEntityPersister persister(Class<?> entityType) {
+        try {
+            EntityPersister persister = emf.unwrap(SessionFactoryImplementor.class)
+                    .getMappingMetamodel().getEntityDescriptor(entityType);
+            return persister instanceof AbstractEntityPersister entityPersister ? entityPersister : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private Map<String, List<IndexInfo>> loadIndexes() {
+        Map<String, List<IndexInfo>> indexes = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : managedTables()) {
+                try (ResultSet rs = metaData.getIndexInfo(null, null, table.toUpperCase(Locale.ROOT), false, true)) {
+                    Set<String> seen = new HashSet<>();
+                    while (rs.next()) {
+                        String name = rs.getString("INDEX_NAME");
+                        if (name == null || rs.getShort("ORDINAL_POSITION") != 1 || !seen.add(name)) {
+                            continue;
+                        }
+                        String upper = name.toUpperCase(Locale.ROOT);
+                        boolean constraintIndex = upper.startsWith("PRIMARY_KEY") || upper.startsWith("CONSTRAINT_") || upper.startsWith("FK");
+                        indexes.computeIfAbsent(table, key -> new ArrayList<>())
+                                .add(new IndexInfo(table, name, rs.getString("COLUMN_NAME"), constraintIndex));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("index advisor could not read index metadata", e);
+        }
+        return indexes;
+    }
+
+    private List<String> managedTables() {
+        return emf.getMetamodel().getEntities().stream()
+                .map(entity -> tableOf(entity.getJavaType()))
+                .distinct()
+                .toList();
+    }
+
+    private boolean isH2() {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("h2");
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private String explain(String sql) {
+        try {
+            // explain 문 자체는 SqlStatementCollector 가 select/update/delete 만 모으므로 다시 수집되지 않는다.
+            return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+        } catch (RuntimeException e) {
+            log.debug("explain failed: {}", sql, e);
+            return null;
+        }
+    }
+
+    private record AccessPath(String table, String column, String method) {
+    }
+
+    private record IndexInfo(String table, String name, String firstColumn, boolean constraintIndex) {
+    }
+}
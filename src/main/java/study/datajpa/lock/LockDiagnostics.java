@@ -0,0 +1,172 @@
+package study.datajpa.lock;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*  잠금 진단
+    - 메서드별 호출 시간 통계 (횟수, 평균, 최대, 타임아웃 수)
+      호출 전체(잠금 대기 + 쿼리 실행 + 결과 읽기) 시간이다. JDBC 로는 잠금을 기다린 시간만 따로 알 수 없으므로
+      실제로 막혀 있었는지는 아래 blocking chain 보고서로 확인한다.
+    - 호출이 slow-threshold-ms 를 넘으면, 아직 기다리는 동안 별도 커넥션으로 H2 INFORMATION_SCHEMA.SESSIONS/LOCKS 를 읽어
+      "누가 누구를 막고 있는지(blocking chain)" 를 기록한다. (대기가 끝난 뒤에는 잠금 정보가 사라지므로 감시 스레드가 읽는다) */
+@Slf4j
+@Component
+public class LockDiagnostics {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LockProperties properties;
+    private final Map<String, LockStats> stats = new ConcurrentHashMap<>();
+    private final Deque<LockWaitReport> reports = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lock-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LockDiagnostics(JdbcTemplate jdbcTemplate, LockProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    @PreDestroy
+    public void stop() {
+        watchdog.shutdownNow();
+    }
+
+    // 호출 시작 - threshold 가 지나도 끝나지 않으면 잠금 정보를 수집한다.
+    public ScheduledFuture<?> watch(String method, long startNanos) {
+        return watchdog.schedule(() -> capture(method, startNanos), properties.getSlowThresholdMs(), TimeUnit.MILLISECONDS);
+    }
+
+    public void record(String method, long elapsedNanos, boolean timedOut) {
+        LockStats stat = stats.computeIfAbsent(method, LockStats::new);
+        stat.count.increment();
+        stat.totalNanos.add(elapsedNanos);
+        stat.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        if (timedOut) {
+            stat.timeouts.increment();
+        }
+    }
+
+    public List<LockStats> stats() {
+        return List.copyOf(stats.values());
+    }
+
+    public List<LockWaitReport> reports() {
+        return List.copyOf(reports);
+    }
+
+    public void clear() {
+        stats.clear();
+        reports.clear();
+    }
+
+    private void capture(String method, long startNanos) {
+        try {
+            Map<Long, SessionInfo> sessions = new LinkedHashMap<>();
+            jdbcTemplate.query("select session_id, blocker_id, executing_statement, sleep_since from information_schema.sessions",
+                    rs -> {
+                        long id = rs.getLong(1);
+                        long blockerId = rs.getLong(2);
+                        sessions.put(id, new SessionInfo(id, rs.wasNull() ? null : blockerId, rs.getString(3), new ArrayList<>()));
+                    });
+            jdbcTemplate.query("select session_id, table_name, lock_type from information_schema.locks",
+                    rs -> {
+                        SessionInfo session = sessions.get(rs.getLong(1));
+                        if (session != null) {
+                            session.locks().add(rs.getString(3) + " " + rs.getString(2));
+                        }
+                    });
+
+            List<String> chains = new ArrayList<>();
+            for (SessionInfo session : sessions.values()) {
+                if (session.blockerId() != null) {
+                    chains.add(chain(session, sessions));
+                }
+            }
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            LockWaitReport report = new LockWaitReport(LocalDateTime.now(), method, elapsedMs, chains);
+            reports.addFirst(report);
+            while (reports.size() > properties.getMaxReports()) {
+                reports.pollLast();
+            }
+            log.warn("slow locking call: {} running {} ms, blocking chains: {}", method, elapsedMs, chains);
+        } catch (RuntimeException e) {
+            log.warn("could not capture lock information for {}", method, e);
+        }
+    }
+
+    // 대기 세션에서 시작해 blocker 를 따라간다. (순환이면 deadlock 으로 표시)
+    private static String chain(SessionInfo start, Map<Long, SessionInfo> sessions) {
+        StringBuilder chain = new StringBuilder(describe(start));
+        Set<Long> visited = new HashSet<>(Set.of(start.id()));
+        SessionInfo current = start;
+        while (current.blockerId() != null) {
+            SessionInfo blocker = sessions.get(current.blockerId());
+            if (blocker == null) {
+                chain.append(" -> session ").append(current.blockerId());
+                break;
+            }
+            if (!visited.add(blocker.id())) {
+                chain.append(" -> session ").append(blocker.id()).append(" (DEADLOCK)");
+                break;
+            }
+            chain.append(" -> ").append(describe(blocker));
+            current = blocker;
+        }
+        return chain.toString();
+    }
+
+    private static String describe(SessionInfo session) {
+        return "session " + session.id() + " [" + (session.statement() == null ? "idle in transaction" : session.statement().trim()) + "]"
+                + (session.locks().isEmpty() ? "" : " holds " + session.locks());
+    }
+
+    private record SessionInfo(long id, Long blockerId, String statement, List<String> locks) {
+    }
+
+    // elapsedMs: 수집한 시점까지의 호출 시간 (blockingChains 가 비어 있으면 잠금이 아니라 쿼리 자체가 느린 것)
+    public record LockWaitReport(LocalDateTime capturedAt, String method, long elapsedMs, List<String> blockingChains) {
+    }
+
+    public static final class LockStats {
+        private final String method;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder timeouts = new LongAdder();
+
+        private LockStats(String method) {
+            this.method = method;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getAvgCallMs() {
+            long count = getCount();
+            return count == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / count;
+        }
+
+        public long getMaxCallMs() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+    }
+}
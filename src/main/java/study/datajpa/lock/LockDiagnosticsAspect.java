@@ -0,0 +1,62 @@
+package study.datajpa.lock;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ScheduledFuture;
+
+/*  잠금을 잡는 리포지토리 메서드(@Lock 비관적 잠금, @Modifying 벌크 수정/삭제)를 감싼다.
+    - 설정(datajpa.lock.methods.<메서드 이름>)이 있으면 현재 트랜잭션의 EntityManager 에 잠금 타임아웃을 걸고 끝나면 되돌린다.
+      (하이버네이트가 세션의 jakarta.persistence.lock.timeout 을 새로 만드는 쿼리에 적용한다)
+    - 호출 시간(잠금 대기 + 실행)을 기록하고, 오래 걸리면 LockDiagnostics 가 호출 중에 잠금 정보를 수집해서 막힌 것인지 보여준다. */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class LockDiagnosticsAspect {
+
+    private static final String LOCK_TIMEOUT = "jakarta.persistence.lock.timeout";
+
+    private final LockDiagnostics lockDiagnostics;
+    private final LockProperties properties;
+    private final EntityManager em;
+
+    @Around("@annotation(org.springframework.data.jpa.repository.Lock)" +
+            " || @annotation(org.springframework.data.jpa.repository.Modifying)")
+    public Object diagnose(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String methodName = signature.getMethod().getName();
+        String method = signature.getDeclaringType().getSimpleName() + "." + methodName;
+        LockProperties.MethodPolicy policy = properties.getMethods().get(methodName);
+
+        boolean applyTimeout = policy != null && TransactionSynchronizationManager.isActualTransactionActive();
+        Object previous = applyTimeout ? em.getProperties().get(LOCK_TIMEOUT) : null;
+        if (applyTimeout) {
+            em.setProperty(LOCK_TIMEOUT, policy.lockTimeout());
+        }
+
+        long start = System.nanoTime();
+        ScheduledFuture<?> watch = lockDiagnostics.watch(method, start);
+        boolean timedOut = false;
+        try {
+            return joinPoint.proceed();
+        } catch (PessimisticLockingFailureException | PessimisticLockException | LockTimeoutException e) {
+            timedOut = true;
+            throw e;
+        } finally {
+            watch.cancel(false);
+            lockDiagnostics.record(method, System.nanoTime() - start, timedOut);
+            if (applyTimeout) {
+                em.setProperty(LOCK_TIMEOUT, previous == null ? -1 : previous);
+            }
+        }
+    }
+}
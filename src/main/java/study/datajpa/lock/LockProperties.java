@@ -0,0 +1,48 @@
+package study.datajpa.lock;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.LockOptions;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*  datajpa.lock 설정
+    slow-threshold-ms: 이 시간보다 오래 기다리는 잠금 메서드는 대기 중에 DB 잠금 정보(blocking chain)를 수집한다.
+    methods: 리포지토리 메서드 이름 -> 대기 방식, 타임아웃 (실행 중에 바꿀 수 있다) */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("datajpa.lock")
+public class LockProperties {
+
+    private long slowThresholdMs = 500;
+    private int maxReports = 50;
+    private Map<String, MethodPolicy> methods = new ConcurrentHashMap<>();
+
+    @Getter
+    @Setter
+    public static class MethodPolicy {
+        private LockWaitMode mode = LockWaitMode.WAIT;
+        private Long timeoutMs;
+
+        public MethodPolicy() {
+        }
+
+        public MethodPolicy(LockWaitMode mode, Long timeoutMs) {
+            this.mode = mode;
+            this.timeoutMs = timeoutMs;
+        }
+
+        // 하이버네이트 잠금 타임아웃 값 (0 = NOWAIT, -2 = SKIP LOCKED, -1 = 무한 대기/DB 기본값)
+        public int lockTimeout() {
+            return switch (mode) {
+                case NOWAIT -> LockOptions.NO_WAIT;
+                case SKIP_LOCKED -> LockOptions.SKIP_LOCKED;
+                case WAIT -> timeoutMs == null ? LockOptions.WAIT_FOREVER : timeoutMs.intValue();
+            };
+        }
+    }
+}
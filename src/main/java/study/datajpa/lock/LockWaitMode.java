@@ -0,0 +1,9 @@
+package study.datajpa.lock;
+
+/*  잠금 대기 방식 - jakarta.persistence.lock.timeout 힌트 값으로 바뀐다.
+    WAIT: timeout-ms 까지 기다린다. (없으면 DB 기본값)
+    NOWAIT: 잠겨 있으면 바로 실패한다. (for update nowait)
+    SKIP_LOCKED: 잠긴 행은 건너뛰고 나머지만 반환한다. (for update skip locked) */
+public enum LockWaitMode {
+    WAIT, NOWAIT, SKIP_LOCKED
+}
@@ -0,0 +1,25 @@
+package study.datajpa.outbox;
+
+import study.datajpa.entitiy.OutboxMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 테스트, 로컬 실행용 - 전달된 메시지를 메모리에 보관한다.
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxMessage> delivered = new ArrayList<>();
+
+    @Override
+    public synchronized void deliver(List<OutboxMessage> messages) {
+        delivered.addAll(messages);
+    }
+
+    public synchronized List<OutboxMessage> getDelivered() {
+        return List.copyOf(delivered);
+    }
+
+    public synchronized void clear() {
+        delivered.clear();
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// 벌크 수정(bulkAgePlus)은 엔티티 리스너를 거치지 않으므로 실행 결과로 이벤트를 기록한다.
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class OutboxAspect {
+
+    private final OutboxRecorder outboxRecorder;
+
+    @AfterReturning(pointcut = "(execution(int study.datajpa.repository.MemberRepository.bulkAgePlus(int))" +
+            " || execution(int study.datajpa.repository.MemberJpaRepository.bulkAgePlus(int))) && args(age)",
+            returning = "affected", argNames = "age,affected")
+    public void afterBulkAgePlus(int age, int affected) {
+        if (affected > 0) {
+            outboxRecorder.record(OutboxEvent.memberAgesBumped(age, affected));
+        }
+    }
+}
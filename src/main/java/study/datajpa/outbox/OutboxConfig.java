@@ -0,0 +1,24 @@
+package study.datajpa.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "datajpa.outbox.sink", havingValue = "file")
+    public OutboxSink fileOutboxSink(@Value("${datajpa.outbox.file:build/outbox/events.jsonl}") String file) {
+        return new FileOutboxSink(Path.of(file));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "datajpa.outbox.sink", havingValue = "memory", matchIfMissing = true)
+    public OutboxSink inMemoryOutboxSink() {
+        return new InMemoryOutboxSink();
+    }
+}
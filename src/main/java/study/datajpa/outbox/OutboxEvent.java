@@ -0,0 +1,22 @@
+package study.datajpa.outbox;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// 아웃박스에 쌓이는 변경 이벤트 하나
+public record OutboxEvent(String type, String aggregateType, Long aggregateId,
+                          Map<String, Object> data, LocalDateTime occurredAt) {
+
+    public static OutboxEvent memberTeamChanged(Long memberId, Long fromTeamId, Long toTeamId) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("fromTeamId", fromTeamId);
+        data.put("toTeamId", toTeamId);
+        return new OutboxEvent("MemberTeamChanged", "Member", memberId, data, LocalDateTime.now());
+    }
+
+    public static OutboxEvent memberAgesBumped(int fromAge, int affected) {
+        return new OutboxEvent("MemberAgesBumped", "Member", null,
+                Map.of("fromAge", fromAge, "affected", affected), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.outbox;
+
+import org.hibernate.Interceptor;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.ObjectProvider;
+
+/*  하이버네이트는 커밋할 때 flush -> beforeTransactionCompletion -> JDBC commit 순서로 진행한다.
+    flush 중에 엔티티 리스너가 기록한 이벤트까지 모두 모인 시점이므로 여기서 아웃박스 insert 를 한다. */
+public class OutboxInterceptor implements Interceptor {
+
+    private final ObjectProvider<OutboxRecorder> outboxRecorder;
+
+    public OutboxInterceptor(ObjectProvider<OutboxRecorder> outboxRecorder) {
+        this.outboxRecorder = outboxRecorder;
+    }
+
+    @Override
+    public void beforeTransactionCompletion(Transaction tx) {
+        outboxRecorder.getObject().flush();
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.outbox;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import study.datajpa.entitiy.Member;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+// Member 엔티티 리스너 - 팀 변경(changeTeam)을 MemberTeamChanged 이벤트로 기록한다.
+public class OutboxListener {
+
+    private final ObjectProvider<OutboxRecorder> outboxRecorder;
+    private final Map<Member, Long> teamIds = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public OutboxListener(ObjectProvider<OutboxRecorder> outboxRecorder) {
+        this.outboxRecorder = outboxRecorder;
+    }
+
+    @PostLoad
+    public void postLoad(Member member) {
+        teamIds.put(member, teamIdOf(member));
+    }
+
+    @PostPersist
+    public void postPersist(Member member) {
+        Long teamId = teamIdOf(member);
+        teamIds.put(member, teamId);
+        if (teamId != null) {
+            outboxRecorder.getObject().record(OutboxEvent.memberTeamChanged(member.getId(), null, teamId));
+        }
+    }
+
+    @PostUpdate
+    public void postUpdate(Member member) {
+        if (!teamIds.containsKey(member)) {
+            return;
+        }
+        Long teamId = teamIdOf(member);
+        Long before = teamIds.put(member, teamId);
+        if (!Objects.equals(before, teamId)) {
+            outboxRecorder.getObject().record(OutboxEvent.memberTeamChanged(member.getId(), before, teamId));
+        }
+    }
+
+    private static Long teamIdOf(Member member) {
+        return member.getTeam() == null ? null : member.getTeam().getId();
+    }
+}
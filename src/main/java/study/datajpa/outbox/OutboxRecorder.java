@@ -0,0 +1,60 @@
+package study.datajpa.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.util.TransactionScoped;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*  트랜잭션 동안 발생한 이벤트를 모아두었다가 커밋 직전에 아웃박스에 한 번만 insert 한다.
+    - record: 트랜잭션에 묶인 목록에 추가 (트랜잭션이 없으면 바로 insert)
+    - flush: OutboxInterceptor 가 하이버네이트 flush 이후, 커밋 직전에 호출 -> 같은 커넥션/트랜잭션에서 insert 1회
+    롤백되면 flush 가 호출되지 않으므로 이벤트도 함께 버려진다.
+    이벤트 목록은 트랜잭션 동기화로 등록해 두므로 REQUIRES_NEW 안쪽 트랜잭션은 바깥 트랜잭션의 목록을 보지 않는다. */
+@Component
+@RequiredArgsConstructor
+public class OutboxRecorder {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void record(OutboxEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(event));
+            return;
+        }
+        TransactionScoped.getOrRegister(PendingEvents.class, PendingEvents::new).events.add(event);
+    }
+
+    void flush() {
+        PendingEvents pending = TransactionScoped.find(PendingEvents.class);
+        if (pending == null || pending.events.isEmpty()) {
+            return;
+        }
+        insert(new ArrayList<>(pending.events));
+        pending.events.clear();
+    }
+
+    private void insert(List<OutboxEvent> events) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(events);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("outbox event serialization failed", e);
+        }
+        jdbcTemplate.update("insert into outbox_message (event_count, payload, created_date) values (?, ?, ?)",
+                events.size(), payload, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static final class PendingEvents implements TransactionSynchronization {
+        private final List<OutboxEvent> events = new ArrayList<>();
+    }
+}
@@ -0,0 +1,117 @@
+package study.datajpa.outbox;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entitiy.OutboxMessage;
+import study.datajpa.repository.OutboxMessageRepository;
+import study.datajpa.shard.ShardTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*  아웃박스 릴레이 - 미전송 메시지를 batch-size 단위로 읽어 OutboxSink 에 전달하고 전송 시각을 기록한다.
+    전달과 전송 처리가 한 트랜잭션이므로 전달 후 전송 처리 전에 실패하면 다시 전달될 수 있다. (at-least-once)
+    retention 이 지난 전송 완료 메시지는 지운다.
+    메시지는 변경과 같은 샤드에 기록되므로, 샤딩을 켜면 샤드마다 차례로 릴레이한다. */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final OutboxSink outboxSink;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<ShardTemplate> shardTemplate;
+    private ScheduledExecutorService scheduler;
+
+    @Value("${datajpa.outbox.relay-interval-ms:500}")
+    private long relayIntervalMs;
+
+    @Value("${datajpa.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${datajpa.outbox.retention-minutes:60}")
+    private long retentionMinutes;
+
+    public OutboxRelay(OutboxMessageRepository outboxMessageRepository, OutboxSink outboxSink,
+                       TransactionTemplate transactionTemplate, ObjectProvider<ShardTemplate> shardTemplate) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.outboxSink = outboxSink;
+        this.transactionTemplate = transactionTemplate;
+        this.shardTemplate = shardTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (relayIntervalMs <= 0) {
+            return; // 0 이하면 relay() 를 직접 호출한다. (테스트)
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::relayQuietly, relayIntervalMs, relayIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    // 미전송 메시지가 없을 때까지 배치 단위로 전달하고, 전달한 메시지 수를 반환한다.
+    public int relay() {
+        return ShardTemplate.sumOnEachShard(shardTemplate, this::relayShard);
+    }
+
+    private int relayShard() {
+        int total = 0;
+        while (true) {
+            Integer delivered = transactionTemplate.execute(status -> deliverBatch());
+            if (delivered == null || delivered == 0) {
+                break;
+            }
+            total += delivered;
+            if (delivered < batchSize) {
+                break;
+            }
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                outboxMessageRepository.deleteDeliveredBefore(LocalDateTime.now().minusMinutes(retentionMinutes)));
+        return total;
+    }
+
+    private int deliverBatch() {
+        List<OutboxMessage> batch = outboxMessageRepository.findByDeliveredDateIsNull(
+                PageRequest.of(0, batchSize, Sort.by("id")));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            outboxSink.deliver(batch);
+        } catch (Exception e) {
+            throw new IllegalStateException("outbox delivery failed", e);
+        }
+        outboxMessageRepository.markDelivered(batch.stream().map(OutboxMessage::getId).toList(), LocalDateTime.now());
+        return batch.size();
+    }
+
+    private void relayQuietly() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.warn("outbox relay failed, will retry", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package study.datajpa.outbox;
+
+import study.datajpa.entitiy.OutboxMessage;
+
+import java.util.List;
+
+// 아웃박스 전달 대상 - 예외를 던지면 해당 배치는 전송 처리되지 않고 다음 주기에 다시 전달된다. (at-least-once)
+public interface OutboxSink {
+
+    void deliver(List<OutboxMessage> messages) throws Exception;
+}
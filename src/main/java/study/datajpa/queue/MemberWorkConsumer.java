@@ -0,0 +1,138 @@
+package study.datajpa.queue;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.shard.ShardTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*  회원 작업 큐 소비자
+    process: workers 개의 작업자가 각자 batch-size 건씩 claim -> 처리 -> 한 번의 배치 update 로 완료 처리를 반복한다.
+    작업자마다 독립적으로 SKIP LOCKED claim 을 하므로 작업자 수만큼 처리량이 늘어난다. 큐가 비면 반환한다.
+    reclaim-interval-seconds 마다 stall-timeout-seconds 가 지난 claim 을 회수한다. (0 이하면 reclaimStalled() 직접 호출)
+    샤딩을 켜면 작업자마다 샤드를 차례로 돌면서 그 샤드의 큐를 비운다. (claim 한 샤드에서 complete/fail 까지 한다) 회수도 샤드마다 한다. */
+@Slf4j
+@Component
+public class MemberWorkConsumer {
+
+    private final MemberWorkQueue queue;
+    private final ObjectProvider<ShardTemplate> shardTemplate;
+    private final String consumerId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicInteger workerSequence = new AtomicInteger();
+    private final AtomicInteger runSequence = new AtomicInteger();
+    private ScheduledExecutorService scheduler;
+
+    @Value("${datajpa.work-queue.workers:4}")
+    private int workers;
+
+    @Value("${datajpa.work-queue.batch-size:100}")
+    private int batchSize;
+
+    @Value("${datajpa.work-queue.stall-timeout-seconds:300}")
+    private long stallTimeoutSeconds;
+
+    @Value("${datajpa.work-queue.reclaim-interval-seconds:60}")
+    private long reclaimIntervalSeconds;
+
+    public MemberWorkConsumer(MemberWorkQueue queue, ObjectProvider<ShardTemplate> shardTemplate) {
+        this.queue = queue;
+        this.shardTemplate = shardTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (reclaimIntervalSeconds <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-work-reclaimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reclaimStalled();
+            } catch (RuntimeException e) {
+                log.warn("reclaiming stalled member work failed", e);
+            }
+        }, reclaimIntervalSeconds, reclaimIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public int reclaimStalled() {
+        Duration stallTimeout = Duration.ofSeconds(stallTimeoutSeconds);
+        int reclaimed = ShardTemplate.sumOnEachShard(shardTemplate, () -> queue.reclaimStalled(stallTimeout));
+        if (reclaimed > 0) {
+            log.info("reclaimed {} stalled member work items", reclaimed);
+        }
+        return reclaimed;
+    }
+
+    // 큐가 빌 때까지 처리하고 완료한 건수를 반환한다.
+    public int process(MemberWorkHandler handler) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable ->
+                new Thread(runnable, "member-worker-" + workerSequence.incrementAndGet()));
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+            AtomicInteger completed = new AtomicInteger();
+            // claim 소유자는 실행(process 호출)마다 새로 만든다. 이전 실행의 작업자가 아직 끝나지 않았거나
+            // 회수 전의 claim 이 남아 있어도 같은 소유자로 complete/fail 하지 않는다.
+            int run = runSequence.incrementAndGet();
+            for (int i = 0; i < workers; i++) {
+                String owner = consumerId + "-" + run + "-" + i;
+                futures[i] = CompletableFuture.runAsync(() -> completed.addAndGet(
+                        ShardTemplate.sumOnEachShard(shardTemplate, () -> work(owner, handler))), pool);
+            }
+            try {
+                CompletableFuture.allOf(futures).get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("member worker failed", e.getCause());
+            }
+            return completed.get();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int work(String owner, MemberWorkHandler handler) {
+        int completed = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long[] claimed = queue.claim(batchSize, owner);
+            if (claimed.length == 0) {
+                return completed;
+            }
+            long[] done = new long[claimed.length];
+            long[] failed = new long[claimed.length];
+            int doneCount = 0;
+            int failedCount = 0;
+            for (long memberId : claimed) {
+                try {
+                    handler.handle(memberId);
+                    done[doneCount++] = memberId;
+                } catch (Exception e) {
+                    log.warn("member work {} failed", memberId, e);
+                    failed[failedCount++] = memberId;
+                }
+            }
+            completed += queue.complete(Arrays.copyOf(done, doneCount), owner);
+            if (failedCount > 0) {
+                queue.fail(Arrays.copyOf(failed, failedCount), owner);
+            }
+        }
+        return completed;
+    }
+}
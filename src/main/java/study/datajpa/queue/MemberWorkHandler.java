@@ -0,0 +1,7 @@
+package study.datajpa.queue;
+
+// 회원 작업 하나를 처리한다. 예외를 던지면 그 회원은 FAILED 상태가 된다.
+@FunctionalInterface
+public interface MemberWorkHandler {
+    void handle(long memberId) throws Exception;
+}
@@ -0,0 +1,92 @@
+package study.datajpa.queue;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.util.LongIds;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static study.datajpa.util.LongIds.IN_CHUNK;
+
+/*  member.work_status 를 작업 큐로 쓴다. (null -> PENDING -> CLAIMED -> DONE / FAILED)
+    - claim: 짧은 트랜잭션 하나에서 다음 n 건을 FOR UPDATE SKIP LOCKED 로 잠그고 CLAIMED 로 바꾼 뒤 바로 커밋한다.
+      다른 작업자가 잠근 행은 기다리지 않고 건너뛰므로 작업자끼리 같은 행에서 줄을 서지 않는다.
+      처리는 커밋 이후에 하므로 처리 시간 동안 행 잠금을 잡고 있지 않는다.
+    - complete/fail: claim_owner 가 같은 행만 배치 update 로 DONE / FAILED 처리한다. (FAILED 는 enqueue 로 다시 넣는다)
+      (회수되어 다른 작업자가 다시 가져간 행을 늦게 끝난 작업자가 덮어쓰지 않는다)
+    - reclaimStalled: claimed_at 이 오래된 CLAIMED 행(작업자가 죽은 경우)을 다시 PENDING 으로 돌린다.
+    모두 현재 샤드(ShardContext)의 member 테이블 대상이다. 샤드 전체는 MemberWorkConsumer 가 샤드마다 호출한다. */
+@Component
+@RequiredArgsConstructor
+public class MemberWorkQueue {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public int enqueue(long[] memberIds) {
+        return updateInChunks("update member set work_status = 'PENDING', claim_owner = null, claimed_at = null" +
+                " where member_id in (%s)", null, memberIds);
+    }
+
+    public long[] claim(int limit, String owner) {
+        long[] ids = transactionTemplate.execute(status -> {
+            long[] claimed = jdbcTemplate.query("select member_id from member where work_status = 'PENDING'" +
+                    " order by member_id limit ? for update skip locked", LongIds.EXTRACTOR, limit);
+            if (claimed.length > 0) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                jdbcTemplate.update("update member set work_status = 'CLAIMED', claim_owner = ?, claimed_at = ?" +
+                                " where member_id in (" + LongIds.placeholders(claimed.length) + ")",
+                        ps -> {
+                            ps.setString(1, owner);
+                            ps.setTimestamp(2, now);
+                            LongIds.bind(ps, 3, claimed, 0, claimed.length);
+                        });
+            }
+            return claimed;
+        });
+        return ids == null ? new long[0] : ids;
+    }
+
+    public int complete(long[] memberIds, String owner) {
+        return updateInChunks("update member set work_status = 'DONE', claim_owner = null, claimed_at = null" +
+                " where claim_owner = ? and member_id in (%s)", owner, memberIds);
+    }
+
+    public int fail(long[] memberIds, String owner) {
+        return updateInChunks("update member set work_status = 'FAILED', claim_owner = null, claimed_at = null" +
+                " where claim_owner = ? and member_id in (%s)", owner, memberIds);
+    }
+
+    public int reclaimStalled(Duration stallTimeout) {
+        return jdbcTemplate.update("update member set work_status = 'PENDING', claim_owner = null, claimed_at = null" +
+                " where work_status = 'CLAIMED' and claimed_at < ?", Timestamp.valueOf(LocalDateTime.now().minus(stallTimeout)));
+    }
+
+    public long countByStatus(String status) {
+        return jdbcTemplate.queryForObject("select count(*) from member where work_status = ?", Long.class, status);
+    }
+
+    private int updateInChunks(String sqlFormat, String owner, long[] ids) {
+        Integer updated = transactionTemplate.execute(status -> {
+            int total = 0;
+            for (int from = 0; from < ids.length; from += IN_CHUNK) {
+                int start = from;
+                int end = Math.min(from + IN_CHUNK, ids.length);
+                total += jdbcTemplate.update(String.format(sqlFormat, LongIds.placeholders(end - start)),
+                        ps -> {
+                            int index = 1;
+                            if (owner != null) {
+                                ps.setString(index++, owner);
+                            }
+                            LongIds.bind(ps, index, ids, start, end);
+                        });
+            }
+            return total;
+        });
+        return updated == null ? 0 : updated;
+    }
+}
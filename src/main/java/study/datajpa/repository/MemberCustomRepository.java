@@ -1,9 +1,28 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entitiy.Member;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface MemberCustomRepository {
     List<Member> findMemberCustom();
+
+    // 동적 검색 - count 쿼리 없이 size + 1 건을 조회해서 다음 페이지 여부만 판단한다.
+    Slice<MemberDto> search(MemberSearchCondition condition, Pageable pageable);
+
+    /*  동적 검색 키셋 페이징 - sort(+ id) 순서에서 lastId 회원 다음부터 조회한다. (offset 없음, lastId 가 null 이면 첫 페이지)
+        정렬 값이 같은 회원은 id 로 구분하므로 페이지 사이에 빠지거나 겹치는 회원이 없다. */
+    Slice<MemberDto> searchAfter(MemberSearchCondition condition, Long lastId, Sort sort, int size);
+
+    // 이름 접두어/부분 문자열 검색 - 메모리 색인에서 id를 찾고, 한 번의 in 쿼리로 회원을 조회한다.
+    List<Member> searchByUsername(String prefixOrFragment, int limit);
+
+    // id 조회 - member 테이블에 없으면 보관 테이블(member_archive)까지 읽는다. (read-through)
+    Optional<MemberDto> findDtoByIdIncludingArchived(Long id);
 }
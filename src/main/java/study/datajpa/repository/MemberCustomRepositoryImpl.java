@@ -1,15 +1,42 @@
 package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entitiy.Member;
+import study.datajpa.search.SearchIndex;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 public class MemberCustomRepositoryImpl implements MemberCustomRepository{
     // interface + Impl 을 붙이면 스프링 데이터 JPA가 인식해서 구현체를 만들어준다.
     private final EntityManager em;
+    private final SearchIndex searchIndex;
+
+    /*  조건 모양(어떤 조건이 있는지 + 정렬)별 JPQL 캐시
+        같은 모양이면 항상 같은 JPQL 문자열을 쓰므로, 하이버네이트 쿼리 플랜 캐시가 파싱/변환 결과를 재사용한다.
+        모양의 수는 조건 조합(2^7) x 정렬 조합으로 제한된다. */
+    private static final Map<String, String> searchQueries = new ConcurrentHashMap<>();
+    private static final Set<String> SORTABLE = Set.of("id", "username", "age", "createdDate");
+    // 키셋 비교(>, <)는 null 을 건너뛰므로 null 이 없는 컬럼으로만 정렬한다. (username 정렬은 키셋에서 무시)
+    private static final Set<String> KEYSET_SORTABLE = Set.of("id", "age", "createdDate");
 
     @Override
     public List<Member> findMemberCustom() {
@@ -17,4 +44,216 @@ public class MemberCustomRepositoryImpl implements MemberCustomRepository{
                 .getResultList();
     }
 
+    @Override
+    public Slice<MemberDto> search(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberDto> content = createSearchQuery(condition, null, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        return toSlice(content, pageable);
+    }
+
+    @Override
+    public Slice<MemberDto> searchAfter(MemberSearchCondition condition, Long lastId, Sort sort, int size) {
+        List<MemberDto> content = createSearchQuery(condition, lastId, sort)
+                .setMaxResults(size + 1)
+                .getResultList();
+        return toSlice(content, PageRequest.of(0, size, sort));
+    }
+
+    @Override
+    public List<Member> searchByUsername(String prefixOrFragment, int limit) {
+        if (!searchIndex.isReady()) {
+            return searchByUsernameLike(prefixOrFragment, limit);
+        }
+        List<Long> ids = searchIndex.searchMemberIds(prefixOrFragment, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Member> members = em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+        // 색인 순서(접두어 일치 우선)를 유지하고, 색인에는 있지만 이미 지워진 회원은 건너뛴다.
+        return ids.stream()
+                .map(members::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // 기동 직후 색인을 만드는 동안에는 DB에서 찾는다. (username 전체 스캔, 접두어 일치 우선)
+    private List<Member> searchByUsernameLike(String prefixOrFragment, int limit) {
+        if (prefixOrFragment == null || prefixOrFragment.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String fragment = prefixOrFragment.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return em.createQuery("select m from Member m where lower(m.username) like :fragment escape '\\'" +
+                        " order by case when lower(m.username) like :prefix escape '\\' then 0 else 1 end, m.username, m.id",
+                        Member.class)
+                .setParameter("fragment", "%" + fragment + "%")
+                .setParameter("prefix", fragment + "%")
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Optional<MemberDto> findDtoByIdIncludingArchived(Long id) {
+        Optional<MemberDto> hot = em.createQuery(
+                        "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                                " from Member m left join m.team t where m.id = :id", MemberDto.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+        if (hot.isPresent()) {
+            return hot;
+        }
+        // 보관된 회원은 team_id 값만 남아 있으므로 엔티티 조인(on)으로 팀 이름을 찾는다.
+        return em.createQuery(
+                        "select new study.datajpa.dto.MemberDto(a.id, a.username, t.name)" +
+                                " from MemberArchive a left join Team t on t.id = a.teamId where a.id = :id", MemberDto.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    // lastId 가 있으면 키셋 조건을 붙인다. (정렬은 sort 뒤에 항상 id 를 붙인다)
+    private TypedQuery<MemberDto> createSearchQuery(MemberSearchCondition condition, Long lastId, Sort sort) {
+        String jpql = searchQueries.computeIfAbsent(shapeOf(condition, lastId != null, sort),
+                shape -> buildSearchJpql(condition, lastId != null, sort));
+        TypedQuery<MemberDto> query = em.createQuery(jpql, MemberDto.class);
+
+        if (condition.getUsernamePrefix() != null) {
+            query.setParameter("usernamePrefix", escapeLike(condition.getUsernamePrefix()) + "%");
+        }
+        if (condition.getAgeGoe() != null) {
+            query.setParameter("ageGoe", condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            query.setParameter("ageLoe", condition.getAgeLoe());
+        }
+        if (condition.getTeamId() != null) {
+            query.setParameter("teamId", condition.getTeamId());
+        }
+        if (condition.getTeamName() != null) {
+            query.setParameter("teamName", condition.getTeamName());
+        }
+        if (condition.getCreatedFrom() != null) {
+            query.setParameter("createdFrom", condition.getCreatedFrom());
+        }
+        if (condition.getCreatedTo() != null) {
+            query.setParameter("createdTo", condition.getCreatedTo());
+        }
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+        return query;
+    }
+
+    private static String shapeOf(MemberSearchCondition condition, boolean keyset, Sort sort) {
+        StringBuilder shape = new StringBuilder();
+        shape.append(condition.getUsernamePrefix() != null ? '1' : '0')
+                .append(condition.getAgeGoe() != null ? '1' : '0')
+                .append(condition.getAgeLoe() != null ? '1' : '0')
+                .append(condition.getTeamId() != null ? '1' : '0')
+                .append(condition.getTeamName() != null ? '1' : '0')
+                .append(condition.getCreatedFrom() != null ? '1' : '0')
+                .append(condition.getCreatedTo() != null ? '1' : '0')
+                .append(keyset ? 'K' : 'O');
+        for (Sort.Order order : orders(sort, keyset)) {
+            shape.append('|').append(order.getProperty()).append(':').append(order.getDirection());
+        }
+        return shape.toString();
+    }
+
+    private static String buildSearchJpql(MemberSearchCondition condition, boolean keyset, Sort sort) {
+        List<String> where = new ArrayList<>();
+        if (condition.getUsernamePrefix() != null) {
+            where.add("m.username like :usernamePrefix escape '!'"); // 접두어 like 는 username 인덱스를 탄다.
+        }
+        if (condition.getAgeGoe() != null) {
+            where.add("m.age >= :ageGoe");
+        }
+        if (condition.getAgeLoe() != null) {
+            where.add("m.age <= :ageLoe");
+        }
+        if (condition.getTeamId() != null) {
+            where.add("t.id = :teamId");
+        }
+        if (condition.getTeamName() != null) {
+            where.add("t.name = :teamName");
+        }
+        if (condition.getCreatedFrom() != null) {
+            where.add("m.createdDate >= :createdFrom");
+        }
+        if (condition.getCreatedTo() != null) {
+            where.add("m.createdDate < :createdTo");
+        }
+        List<Sort.Order> orders = orders(sort, keyset);
+        if (keyset) {
+            where.add(seekPredicate(orders));
+        }
+
+        StringBuilder jpql = new StringBuilder("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                " from Member m left join m.team t");
+        if (!where.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", where));
+        }
+
+        List<String> orderBy = new ArrayList<>();
+        for (Sort.Order order : orders) {
+            orderBy.add("m." + order.getProperty() + (order.isAscending() ? " asc" : " desc"));
+        }
+        jpql.append(" order by ").append(String.join(", ", orderBy));
+        return jpql.toString();
+    }
+
+    // 정렬 가능한 속성만 남기고 마지막에 id 를 붙인다. - 정렬 값이 같은 회원도 순서가 정해져서 페이지 경계가 흔들리지 않는다.
+    private static List<Sort.Order> orders(Sort sort, boolean keyset) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if ((keyset ? KEYSET_SORTABLE : SORTABLE).contains(order.getProperty())) {
+                orders.add(order);
+                if (order.getProperty().equals("id")) {
+                    return orders; // id 뒤의 정렬은 의미가 없다.
+                }
+            }
+        }
+        orders.add(Sort.Order.asc("id"));
+        return orders;
+    }
+
+    /*  (a, b, id) 순서에서 마지막 회원 다음 - (a > :a) or (a = :a and b > :b) or (a = :a and b = :b and id > :lastId)
+        마지막 회원의 정렬 값은 lastId 로 PK 조회하는 서브쿼리로 읽는다. (내림차순은 < 로 비교) */
+    private static String seekPredicate(List<Sort.Order> orders) {
+        List<String> alternatives = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            List<String> terms = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                String property = orders.get(j).getProperty();
+                terms.add("m." + property + " = " + lastValue(property));
+            }
+            Sort.Order order = orders.get(i);
+            terms.add("m." + order.getProperty() + (order.isAscending() ? " > " : " < ") + lastValue(order.getProperty()));
+            alternatives.add("(" + String.join(" and ", terms) + ")");
+        }
+        return "(" + String.join(" or ", alternatives) + ")";
+    }
+
+    private static String lastValue(String property) {
+        return property.equals("id") ? ":lastId" : "(select prev." + property + " from Member prev where prev.id = :lastId)";
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static <T> Slice<T> toSlice(List<T> content, Pageable pageable) {
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
 }
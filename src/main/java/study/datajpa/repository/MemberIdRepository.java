@@ -0,0 +1,105 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.cache.DataChangeListener;
+import study.datajpa.cache.DataChangeTracker;
+import study.datajpa.entitiy.Member;
+import study.datajpa.search.SearchIndex;
+import study.datajpa.stat.MemberStatDelta;
+import study.datajpa.stat.MemberStatService;
+import study.datajpa.util.LongIds;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import static study.datajpa.util.LongIds.IN_CHUNK;
+import static study.datajpa.util.TransactionCallbacks.afterCommit;
+
+/*  회원 id 전용 리포지토리 - 대량 작업에서 엔티티나 List<Long> 대신 long[] 로 id 만 다룬다.
+    id 는 JDBC 로 직접 읽으므로 엔티티를 만들지 않고, 영속성 컨텍스트에도 쌓이지 않는다. */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class MemberIdRepository {
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final MemberStatService memberStatService;
+    private final SearchIndex searchIndex;
+    private final DataChangeTracker dataChangeTracker;
+
+    @Value("${datajpa.stat.rebuild-threshold:50000}")
+    private int statRebuildThreshold;
+
+    // idx_member_age 만 읽는다.
+    public long[] findIdsByAge(int age) {
+        return jdbcTemplate.query("select member_id from member where age = ? order by member_id",
+                LongIds.EXTRACTOR, age);
+    }
+
+    // 전체 id 를 배열에 모으지 않고 하나씩 넘긴다.
+    public void streamIds(LongConsumer consumer) {
+        jdbcTemplate.query("select member_id from member order by member_id",
+                rs -> {
+                    consumer.accept(rs.getLong(1));
+                });
+    }
+
+    /*  chunkSize 개씩 엔티티로 조회해서 넘긴다. 넘긴 청크는 준영속으로 만들어서 영속성 컨텍스트가 커지지 않는다.
+        (청크 안에서 바꾼 값은 반영되지 않으므로 조회 용도로만 사용) */
+    public void findAllByIdIn(long[] ids, int chunkSize, Consumer<List<Member>> consumer) {
+        for (int from = 0; from < ids.length; from += chunkSize) {
+            List<Long> chunk = Arrays.stream(ids, from, Math.min(from + chunkSize, ids.length)).boxed().toList();
+            List<Member> members = em.createQuery("select m from Member m where m.id in :ids order by m.id", Member.class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            consumer.accept(members);
+            members.forEach(em::detach);
+        }
+    }
+
+    /*  JDBC 로 in 절 청크 단위 삭제 - 엔티티 리스너를 거치지 않으므로
+        팀 회원 수, 집계 테이블, 검색 색인, 캐시 세대를 직접 맞춘다.
+        집계는 지우기 전에 청크마다 (나이, 팀)별 회원 수를 group by 로 읽어 증감분으로 반영하고,
+        rebuild-threshold 보다 많이 지울 때만 전체 재계산한다. (버킷별 update 보다 재계산이 싸지는 지점) */
+    @Transactional
+    public int deleteByIds(long[] ids) {
+        em.flush();
+        boolean rebuild = ids.length > statRebuildThreshold;
+        MemberStatDelta delta = new MemberStatDelta();
+        int deleted = 0;
+        for (int from = 0; from < ids.length; from += IN_CHUNK) {
+            int start = from;
+            int end = Math.min(from + IN_CHUNK, ids.length);
+            String in = LongIds.placeholders(end - start);
+            if (!rebuild) {
+                jdbcTemplate.query("select age, team_id, count(*) from member where member_id in (" + in + ") group by age, team_id",
+                        ps -> LongIds.bind(ps, 1, ids, start, end),
+                        rs -> {
+                            long teamId = rs.getLong(2);
+                            delta.removed(rs.getInt(1), rs.wasNull() ? null : teamId, rs.getLong(3));
+                        });
+            }
+            deleted += jdbcTemplate.update("delete from member where member_id in (" + in + ")",
+                    ps -> LongIds.bind(ps, 1, ids, start, end));
+        }
+        em.clear();
+        if (deleted > 0) {
+            if (rebuild) {
+                memberStatService.rebuild();
+            } else {
+                memberStatService.apply(delta); // 집계 테이블, 팀 회원 수
+            }
+            afterCommit(() -> Arrays.stream(ids).forEach(searchIndex::removeMember));
+            DataChangeListener.changedAfterCommit(dataChangeTracker);
+        }
+        return deleted;
+    }
+}
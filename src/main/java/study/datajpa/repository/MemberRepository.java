@@ -9,11 +9,15 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import study.datajpa.cache.CachedQuery;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberVersionDto;
 import study.datajpa.entitiy.Member;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberCustomRepository {
     // 인터페이스를 확인하고 스프링 데이터 JPA가 인터페이스를 보고 구현체를 만들어서 스프링 빈에 등록해준다.
@@ -25,12 +29,26 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberCus
     @Query("select m from Member m where m.username = :username and m.age > :age")
     List<Member> findMember(@Param("username") String username, @Param("age") int age);
 
+    @CachedQuery
     @Query("select m.username from Member m")
     List<String> findUsernameList();
 
+    @CachedQuery // 조인 조회 - 회원/팀이 바뀔 때까지 결과를 재사용한다.
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
+    // 대량 내보내기 - DTO 로 바로 조회해서 영속성 컨텍스트에 쌓이지 않고, fetch size 단위로 커서를 읽는다. (트랜잭션 안에서 사용)
+    @QueryHints(value = @QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t order by m.id")
+    Stream<MemberDto> streamMemberDto();
+
+    // HTTP 조건부 요청(ETag) 용 버전 조회 - 엔티티를 로딩하지 않고 값만 읽는다.
+    @Query("select m.lastModifiedDate from Member m where m.id = :id")
+    Optional<LocalDateTime> findLastModifiedDateById(@Param("id") Long id);
+
+    @Query("select new study.datajpa.dto.MemberVersionDto(count(m), max(m.lastModifiedDate), max(m.id)) from Member m")
+    MemberVersionDto findMemberVersion();
+
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") List<String> names);
 
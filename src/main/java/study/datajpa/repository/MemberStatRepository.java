@@ -0,0 +1,44 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+import study.datajpa.dto.AgeSummaryDto;
+import study.datajpa.entitiy.AgeStat;
+import study.datajpa.entitiy.TeamStat;
+
+import java.util.List;
+import java.util.Optional;
+
+// 집계 테이블 조회용 리포지토리 - 조회 비용은 버킷(나이, 팀) 수에만 비례한다.
+@Repository
+public class MemberStatRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public List<AgeStat> findAgeDistribution() {
+        return em.createQuery("select s from AgeStat s order by s.age", AgeStat.class)
+                .getResultList();
+    }
+
+    public long countByAge(int age) {
+        AgeStat stat = em.find(AgeStat.class, age);
+        return stat == null ? 0 : stat.getMemberCount();
+    }
+
+    public AgeSummaryDto findAgeSummary() {
+        return em.createQuery("select new study.datajpa.dto.AgeSummaryDto(sum(s.memberCount), min(s.age), max(s.age), sum(s.age * s.memberCount))" +
+                        " from AgeStat s", AgeSummaryDto.class)
+                .getSingleResult();
+    }
+
+    public List<TeamStat> findTeamStats() {
+        return em.createQuery("select s from TeamStat s order by s.teamId", TeamStat.class)
+                .getResultList();
+    }
+
+    public Optional<TeamStat> findTeamStat(Long teamId) {
+        return Optional.ofNullable(em.find(TeamStat.class, teamId));
+    }
+}
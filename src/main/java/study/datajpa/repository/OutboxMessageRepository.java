@@ -0,0 +1,25 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import study.datajpa.entitiy.OutboxMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // 미전송 건을 id 순으로 - idx_outbox_delivered(delivered_date, id) 인덱스 범위 조회
+    List<OutboxMessage> findByDeliveredDateIsNull(Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update OutboxMessage o set o.deliveredDate = :now where o.id in :ids")
+    int markDelivered(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from OutboxMessage o where o.deliveredDate < :before")
+    int deleteDeliveredBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,89 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.cache.DataChangeListener;
+import study.datajpa.cache.DataChangeTracker;
+import study.datajpa.entitiy.Team;
+import study.datajpa.outbox.OutboxEvent;
+import study.datajpa.outbox.OutboxRecorder;
+import study.datajpa.search.SearchIndex;
+import study.datajpa.util.LongIds;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import static study.datajpa.util.LongIds.IN_CHUNK;
+import static study.datajpa.util.TransactionCallbacks.afterCommit;
+
+// 팀 id 전용 리포지토리 - MemberIdRepository 와 같은 방식
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class TeamIdRepository {
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final SearchIndex searchIndex;
+    private final DataChangeTracker dataChangeTracker;
+    private final OutboxRecorder outboxRecorder;
+
+    // 팀에 속한 회원 id
+    public long[] findMemberIds(long teamId) {
+        return jdbcTemplate.query("select member_id from member where team_id = ? order by member_id",
+                LongIds.EXTRACTOR, teamId);
+    }
+
+    public void streamIds(LongConsumer consumer) {
+        jdbcTemplate.query("select team_id from team order by team_id",
+                rs -> {
+                    consumer.accept(rs.getLong(1));
+                });
+    }
+
+    public void findAllByIdIn(long[] ids, int chunkSize, Consumer<List<Team>> consumer) {
+        for (int from = 0; from < ids.length; from += chunkSize) {
+            List<Long> chunk = Arrays.stream(ids, from, Math.min(from + chunkSize, ids.length)).boxed().toList();
+            List<Team> teams = em.createQuery("select t from Team t where t.id in :ids order by t.id", Team.class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            consumer.accept(teams);
+            teams.forEach(em::detach);
+        }
+    }
+
+    /*  소속 회원은 팀 없음으로 바꾸고 팀을 지운다. 회원의 나이 집계는 그대로이고 팀 집계 행만 지운다.
+        JDBC 로 바꾸므로 OutboxListener 를 거치지 않는다 - 바뀌는 회원마다 MemberTeamChanged 를 같은 트랜잭션에 직접 기록한다. */
+    @Transactional
+    public int deleteByIds(long[] ids) {
+        em.flush();
+        int deleted = 0;
+        for (int from = 0; from < ids.length; from += IN_CHUNK) {
+            int start = from;
+            int end = Math.min(from + IN_CHUNK, ids.length);
+            String in = LongIds.placeholders(end - start);
+            jdbcTemplate.query("select member_id, team_id from member where team_id in (" + in + ")",
+                    ps -> LongIds.bind(ps, 1, ids, start, end),
+                    rs -> {
+                        outboxRecorder.record(OutboxEvent.memberTeamChanged(rs.getLong(1), rs.getLong(2), null));
+                    });
+            jdbcTemplate.update("update member set team_id = null where team_id in (" + in + ")",
+                    ps -> LongIds.bind(ps, 1, ids, start, end));
+            jdbcTemplate.update("delete from team_stat where team_id in (" + in + ")",
+                    ps -> LongIds.bind(ps, 1, ids, start, end));
+            deleted += jdbcTemplate.update("delete from team where team_id in (" + in + ")",
+                    ps -> LongIds.bind(ps, 1, ids, start, end));
+        }
+        em.clear();
+        if (deleted > 0) {
+            afterCommit(() -> Arrays.stream(ids).forEach(searchIndex::removeTeam));
+            DataChangeListener.changedAfterCommit(dataChangeTracker);
+        }
+        return deleted;
+    }
+}
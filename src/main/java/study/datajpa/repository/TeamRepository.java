@@ -1,7 +1,20 @@
 package study.datajpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import study.datajpa.entitiy.Team;
 
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    // 벌크로 회원의 팀을 옮길 때 사용 - 영속성 컨텍스트를 거치지 않고 DB에서 원자적으로 증감한다.
+    @Modifying(clearAutomatically = true)
+    @Query("update Team t set t.memberCount = t.memberCount + :delta where t.id = :teamId")
+    int addMemberCount(@Param("teamId") Long teamId, @Param("delta") int delta);
+
+    // 비정규화된 memberCount 를 실제 회원 수로 다시 맞춘다. (벌크 수정 이후 보정용)
+    @Modifying(clearAutomatically = true)
+    @Query("update Team t set t.memberCount = (select count(m) from Member m where m.team = t)")
+    int syncMemberCount();
 }
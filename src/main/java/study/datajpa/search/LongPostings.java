@@ -0,0 +1,54 @@
+package study.datajpa.search;
+
+import java.util.Arrays;
+
+/*  정렬된 long[] id 목록 (색인 용어 하나의 posting list)
+    HashSet<Long> 은 id 하나에 박싱 객체 + 해시 엔트리로 수십 바이트를 쓰지만, 여기서는 8바이트만 쓴다.
+    색인을 다시 만들 때는 id 순으로 넣으므로 끝에 붙이기만 하고, 증분 추가/삭제는 이진 탐색 + 배열 이동이다. */
+final class LongPostings {
+
+    private long[] ids = new long[2];
+    private int size;
+
+    void add(long id) {
+        int position = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0 && position < size) {
+            return; // 이미 있음
+        }
+        int insert = position == size ? size : -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + Math.max(2, size >> 1));
+        }
+        System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+        ids[insert] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        if (ids.length > 16 && size < ids.length / 4) {
+            ids = Arrays.copyOf(ids, ids.length / 2);
+        }
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
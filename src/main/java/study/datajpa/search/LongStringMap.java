@@ -0,0 +1,82 @@
+package study.datajpa.search;
+
+/*  long -> String 해시 맵 (열린 주소법, 선형 탐사)
+    HashMap<Long, String> 의 박싱 키와 엔트리 객체 없이 슬롯 하나에 long + 참조만 쓴다.
+    빈 슬롯은 value == null 로 구분하고, 삭제는 뒤따르는 슬롯을 당겨 채운다. (tombstone 없음) */
+final class LongStringMap {
+
+    private long[] keys = new long[16];
+    private String[] values = new String[16];
+    private int size;
+
+    String get(long key) {
+        return values[slot(key)];
+    }
+
+    void put(long key, String value) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        int slot = slot(key);
+        if (values[slot] == null) {
+            size++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    String remove(long key) {
+        int mask = keys.length - 1;
+        int hole = slot(key);
+        String old = values[hole];
+        if (old == null) {
+            return null;
+        }
+        values[hole] = null;
+        size--;
+        // 비운 슬롯 뒤의 엔트리 중 원래 자리(home)가 비운 슬롯 이전인 것을 당겨 온다.
+        for (int next = (hole + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!stays) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                values[next] = null;
+                hole = next;
+            }
+        }
+        return old;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        String[] oldValues = values;
+        keys = new long[capacity];
+        values = new String[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
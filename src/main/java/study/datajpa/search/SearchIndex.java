@@ -0,0 +1,126 @@
+package study.datajpa.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.datajpa.shard.ShardTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/*  회원 이름(Member.username), 팀 이름(Team.name) 검색 색인 - SearchIndexListener 가 커밋 이후에 증분 반영한다.
+    rebuild 는 새 색인을 따로 만든 뒤 한 번에 교체하므로 만드는 동안에도 기존 색인으로 검색된다.
+    만드는 동안 들어온 증분 반영은 기존 색인에 반영하면서 기록해 두었다가, 교체 직전에 새 색인에 순서대로 다시 적용한다.
+    (스캔이 읽은 값보다 먼저 커밋된 변경을 다시 적용해도, 그 뒤 커밋의 변경이 기록에서 더 뒤에 있으므로 마지막 값이 남는다) */
+@Slf4j
+@Component
+public class SearchIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskExecutor taskExecutor;
+    private final ObjectProvider<ShardTemplate> shardTemplate;
+
+    private final Object mutationLock = new Object();
+    private volatile Indexes indexes = new Indexes(new TextIndex(), new TextIndex());
+    private volatile boolean ready;
+    private List<Consumer<Indexes>> replay; // rebuild 중에만 기록 (mutationLock)
+
+    public SearchIndex(JdbcTemplate jdbcTemplate, @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                       ObjectProvider<ShardTemplate> shardTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskExecutor = taskExecutor;
+        this.shardTemplate = shardTemplate;
+    }
+
+    // 기동 시간에 넣지 않도록 준비 완료 이후 백그라운드에서 만든다. (만들기 전에는 isReady() == false)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnReady() {
+        taskExecutor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("search index rebuild failed", e);
+            }
+        });
+    }
+
+    // 처음 rebuild 가 끝났는지 - 그 전에는 증분 반영분만 들어 있으므로 검색하는 쪽에서 DB로 대신 찾는다.
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (mutationLock) {
+            replay = new ArrayList<>();
+        }
+        try {
+            Indexes fresh = new Indexes(new TextIndex(), new TextIndex());
+            // 엔티티를 만들지 않고 id, 이름만 스트리밍으로 읽는다. (id 순이면 posting 목록 끝에 붙이기만 한다)
+            // 샤딩을 켜면 샤드마다 읽는다. 뒤 샤드일수록 id 블록이 크므로 샤드 순서대로 읽어도 id 순이다.
+            ShardTemplate.runOnEachShard(shardTemplate, () -> {
+                jdbcTemplate.query("select member_id, username from member order by member_id",
+                        rs -> {
+                            fresh.usernames().put(rs.getLong(1), rs.getString(2));
+                        });
+                jdbcTemplate.query("select team_id, name from team order by team_id",
+                        rs -> {
+                            fresh.teamNames().put(rs.getLong(1), rs.getString(2));
+                        });
+            });
+            synchronized (mutationLock) {
+                replay.forEach(change -> change.accept(fresh));
+                indexes = fresh;
+                ready = true;
+            }
+            log.info("search index rebuilt: {} members, {} teams in {} ms",
+                    fresh.usernames().size(), fresh.teamNames().size(), System.currentTimeMillis() - start);
+        } finally {
+            synchronized (mutationLock) {
+                replay = null;
+            }
+        }
+    }
+
+    public List<Long> searchMemberIds(String prefixOrFragment, int limit) {
+        return indexes.usernames().search(prefixOrFragment, limit);
+    }
+
+    public List<Long> searchTeamIds(String prefixOrFragment, int limit) {
+        return indexes.teamNames().search(prefixOrFragment, limit);
+    }
+
+    public void putMember(long id, String username) {
+        mutate(current -> current.usernames().put(id, username));
+    }
+
+    public void removeMember(long id) {
+        mutate(current -> current.usernames().remove(id));
+    }
+
+    public void putTeam(long id, String name) {
+        mutate(current -> current.teamNames().put(id, name));
+    }
+
+    public void removeTeam(long id) {
+        mutate(current -> current.teamNames().remove(id));
+    }
+
+    private void mutate(Consumer<Indexes> change) {
+        synchronized (mutationLock) {
+            change.accept(indexes);
+            if (replay != null) {
+                replay.add(change);
+            }
+        }
+    }
+
+    private record Indexes(TextIndex usernames, TextIndex teamNames) {
+    }
+}
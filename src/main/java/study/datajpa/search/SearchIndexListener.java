@@ -0,0 +1,46 @@
+package study.datajpa.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import study.datajpa.entitiy.Member;
+import study.datajpa.entitiy.Team;
+
+import static study.datajpa.util.TransactionCallbacks.afterCommit;
+
+/*  Member, Team 엔티티 리스너 - 저장/수정/삭제를 검색 색인에 반영한다.
+    롤백된 변경이 색인에 남지 않도록 트랜잭션 커밋 이후(afterCommit)에 반영한다. */
+public class SearchIndexListener {
+
+    private final ObjectProvider<SearchIndex> searchIndex;
+
+    public SearchIndexListener(ObjectProvider<SearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        if (entity instanceof Member member) {
+            long id = member.getId();
+            String username = member.getUsername();
+            afterCommit(() -> searchIndex.getObject().putMember(id, username));
+        } else if (entity instanceof Team team) {
+            long id = team.getId();
+            String name = team.getName();
+            afterCommit(() -> searchIndex.getObject().putTeam(id, name));
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Member member) {
+            long id = member.getId();
+            afterCommit(() -> searchIndex.getObject().removeMember(id));
+        } else if (entity instanceof Team team) {
+            long id = team.getId();
+            afterCommit(() -> searchIndex.getObject().removeTeam(id));
+        }
+    }
+}
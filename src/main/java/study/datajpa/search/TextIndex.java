@@ -0,0 +1,148 @@
+package study.datajpa.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*  문자열 하나(회원 이름, 팀 이름)에 대한 메모리 역색인
+    - terms: 정렬된 용어 사전 (접두어 검색, 2글자 이하 검색)
+    - trigrams: 3글자 조각 -> id 목록 (부분 문자열 검색, 조각 목록의 교집합 후 실제 값으로 확인)
+    id 목록은 정렬된 long[](LongPostings), id -> 값은 LongStringMap 으로 박싱 없이 보관한다.
+    대소문자는 구분하지 않는다. 읽기는 동시에, 쓰기는 하나씩 처리한다. */
+public class TextIndex {
+
+    private static final int GRAM = 3;
+
+    private final LongStringMap values = new LongStringMap();
+    private final NavigableMap<String, LongPostings> terms = new TreeMap<>();
+    private final Map<String, LongPostings> trigrams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long id, String text) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (text == null) {
+                return;
+            }
+            String value = normalize(text);
+            values.put(id, value);
+            terms.computeIfAbsent(value, key -> new LongPostings()).add(id);
+            for (String gram : gramsOf(value)) {
+                trigrams.computeIfAbsent(gram, key -> new LongPostings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return values.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 접두어 일치를 먼저, 그 다음 부분 문자열 일치를 limit 개까지 반환한다.
+    public List<Long> search(String prefixOrFragment, int limit) {
+        if (prefixOrFragment == null || prefixOrFragment.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String query = normalize(prefixOrFragment);
+        Set<Long> result = new LinkedHashSet<>();
+
+        lock.readLock().lock();
+        try {
+            for (LongPostings ids : terms.subMap(query, true, query + Character.MAX_VALUE, false).values()) {
+                for (int i = 0; i < ids.size(); i++) {
+                    result.add(ids.get(i));
+                    if (result.size() >= limit) {
+                        return new ArrayList<>(result);
+                    }
+                }
+            }
+            if (query.length() < GRAM) {
+                return new ArrayList<>(result);
+            }
+
+            List<LongPostings> postings = new ArrayList<>();
+            for (String gram : gramsOf(query)) {
+                LongPostings ids = trigrams.get(gram);
+                if (ids == null) {
+                    return new ArrayList<>(result);
+                }
+                postings.add(ids);
+            }
+            postings.sort(Comparator.comparingInt(LongPostings::size));
+
+            // 가장 짧은 목록을 돌면서 나머지 목록은 이진 탐색으로 확인한다.
+            LongPostings smallest = postings.get(0);
+            for (int i = 0; i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                if (result.contains(id) || !containsAll(postings, id) || !values.get(id).contains(query)) {
+                    continue;
+                }
+                result.add(id);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+            return new ArrayList<>(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long id) {
+        String old = values.remove(id);
+        if (old == null) {
+            return;
+        }
+        removePosting(terms, old, id);
+        for (String gram : gramsOf(old)) {
+            removePosting(trigrams, gram, id);
+        }
+    }
+
+    private static void removePosting(Map<String, LongPostings> postings, String key, long id) {
+        LongPostings ids = postings.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static boolean containsAll(List<LongPostings> postings, long id) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (!postings.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> gramsOf(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,40 @@
+package study.datajpa.shard;
+
+import java.util.function.Supplier;
+
+/*  현재 스레드가 사용할 샤드 이름 - ShardRoutingDataSource 가 커넥션을 얻을 때 읽는다.
+    커넥션은 트랜잭션(또는 OSIV EntityManager)이 처음 얻을 때 정해지므로, 샤드는 트랜잭션 시작 전에 정해야 한다.
+    지정하지 않으면 기본 샤드(datajpa.sharding.shards 의 첫 번째)를 사용한다. */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> current = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return current.get();
+    }
+
+    public static void set(String shard) {
+        if (shard == null) {
+            current.remove();
+        } else {
+            current.set(shard);
+        }
+    }
+
+    public static void clear() {
+        current.remove();
+    }
+
+    public static <T> T callWith(String shard, Supplier<T> work) {
+        String previous = current.get();
+        set(shard);
+        try {
+            return work.get();
+        } finally {
+            set(previous);
+        }
+    }
+}
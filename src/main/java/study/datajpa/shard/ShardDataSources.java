@@ -0,0 +1,39 @@
+package study.datajpa.shard;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*  샤드별 실제 DataSource (커넥션 풀)
+    DataSource 빈으로 등록하면 P6Spy 데코레이터, 부트 자동 설정이 각각 붙으므로 하나로 묶어서 보관한다.
+    컨테이너 종료 시 close 로 풀을 닫는다. */
+public class ShardDataSources implements AutoCloseable {
+
+    private final Map<String, DataSource> dataSources;
+
+    public ShardDataSources(Map<String, DataSource> dataSources) {
+        this.dataSources = Collections.unmodifiableMap(new LinkedHashMap<>(dataSources));
+    }
+
+    public DataSource get(String shard) {
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+
+    public Map<String, DataSource> asMap() {
+        return dataSources;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : dataSources.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
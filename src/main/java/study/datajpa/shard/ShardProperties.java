@@ -0,0 +1,41 @@
+package study.datajpa.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*  datajpa.sharding 설정
+    shards: 샤드 이름 -> 접속 정보 (순서 유지, 첫 번째가 기본 샤드)
+    tenants: 테넌트 -> 샤드 고정 배치 (없으면 테넌트 id 해시로 배치)
+    id-block: 샤드마다 시퀀스 시작 값을 이만큼 띄워서 샤드 간 id 가 겹치지 않게 한다. */
+@Getter
+@Setter
+@ConfigurationProperties("datajpa.sharding")
+public class ShardProperties {
+
+    private boolean enabled;
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+    private Map<String, String> tenants = new HashMap<>();
+    private long idBlock = 1_000_000_000_000L;
+
+    public List<String> shardNames() {
+        return List.copyOf(shards.keySet());
+    }
+
+    public String defaultShard() {
+        return shards.keySet().iterator().next();
+    }
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// 테넌트 -> 샤드 - 설정(datajpa.sharding.tenants)에 고정된 배치가 없으면 테넌트 id 해시로 고른다.
+@Component
+@ConditionalOnProperty(name = "datajpa.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardResolver {
+
+    private final ShardProperties properties;
+
+    public String resolve(String tenantId) {
+        String shard = properties.getTenants().get(tenantId);
+        if (shard != null) {
+            return shard;
+        }
+        List<String> shards = properties.shardNames();
+        return shards.get(Math.floorMod(tenantId.hashCode(), shards.size()));
+    }
+}
@@ -0,0 +1,16 @@
+package study.datajpa.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// ShardContext 의 샤드 이름으로 실제 DataSource 를 고른다. 알 수 없는 샤드 이름이면 기본 샤드로 가지 않고 실패한다.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource() {
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
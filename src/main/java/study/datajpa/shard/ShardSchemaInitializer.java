@@ -0,0 +1,57 @@
+package study.datajpa.shard;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/*  샤드 스키마 초기화
+    스프링 부트의 Flyway 마이그레이션은 기동할 때 기본 샤드에만 실행되므로, 나머지 샤드에도 같은 설정(db/migration)과
+    같은 FlywayMigrationStrategy 로 마이그레이션한다. 이미 적용된 버전은 건너뛰므로 기존 데이터는 그대로 남는다.
+    (스키마를 지우는 것은 datajpa.bootstrap.clean-on-start 를 켠 경우뿐 - 기본 샤드와 같다)
+    그리고 나머지 샤드의 시퀀스가 id-block * 샤드 순번보다 뒤에 있게 해서 샤드 간 id 가 겹치지 않게 한다. (이미 뒤에 있으면 그대로)
+    EntityManagerFactory 를 주입받아 마이그레이션 이후, 데이터 적재(ApplicationReadyEvent) 이전에 실행된다. */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardSchemaInitializer {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ShardProperties properties;
+    private final ShardDataSources shardDataSources;
+    private final Flyway flyway;
+    private final FlywayMigrationStrategy migrationStrategy;
+
+    @PostConstruct
+    public void initialize() {
+        List<String> shards = properties.shardNames();
+        for (int i = 0; i < shards.size(); i++) {
+            String shard = shards.get(i);
+            if (shard.equals(properties.defaultShard())) {
+                continue; // 기본 샤드는 스프링 부트 마이그레이션, 스냅샷 복원이 시퀀스를 정한다.
+            }
+            DataSource dataSource = shardDataSources.get(shard);
+            migrationStrategy.migrate(Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(dataSource)
+                    .load());
+
+            JdbcTemplate target = new JdbcTemplate(dataSource);
+            long start = properties.getIdBlock() * i + 1;
+            for (String sequence : target.queryForList("select sequence_name from information_schema.sequences" +
+                    " where sequence_schema = 'PUBLIC' and base_value < ?", String.class, start)) {
+                target.execute("alter sequence " + sequence + " restart with " + start);
+            }
+            log.info("shard {} ready (sequences start at {} or later)", shard, start);
+        }
+    }
+}
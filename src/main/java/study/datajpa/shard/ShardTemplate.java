@@ -0,0 +1,134 @@
+package study.datajpa.shard;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.*;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/*  샤드 단위 실행
+    - execute: 지정한 샤드에서 새 트랜잭션으로 실행한다. (이미 트랜잭션이 있으면 그 커넥션은 다른 샤드일 수 있으므로 REQUIRES_NEW)
+    - executeOnAll: 모든 샤드에서 병렬로 실행한다. (샤드마다 작업 스레드 하나, 트랜잭션 하나)
+    - findAll: scatter-gather 페이징 - 샤드마다 offset + size 건을 같은 정렬로 읽어서 합친 뒤 다시 잘라낸다.
+      뒤쪽 페이지일수록 샤드마다 읽는 양이 늘어나므로 깊은 페이지는 키셋 검색(searchAfter)을 샤드별로 쓰는 편이 낫다.
+    - runOnEachShard, sumOnEachShard: 백그라운드 작업(릴레이, 보관, 작업 큐, 색인 재구성)용 - 샤드 순서대로 ShardContext 만 정해서 실행한다.
+      작업이 배치마다 트랜잭션을 직접 여므로 executeOnAll 처럼 바깥 트랜잭션 하나로 묶지 않는다.
+      샤딩을 켜지 않았으면(ShardTemplate 빈 없음) 현재 DataSource 에서 한 번 실행한다. */
+@Component
+@ConditionalOnProperty(name = "datajpa.sharding.enabled", havingValue = "true")
+public class ShardTemplate {
+
+    private final List<String> shards;
+    private final PlatformTransactionManager transactionManager;
+    private final ExecutorService executor;
+
+    public ShardTemplate(ShardProperties properties, PlatformTransactionManager transactionManager) {
+        this.shards = properties.shardNames();
+        this.transactionManager = transactionManager;
+        this.executor = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public <T> T execute(String shard, boolean readOnly, Supplier<T> work) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(readOnly);
+        return ShardContext.callWith(shard, () -> transactionTemplate.execute(status -> work.get()));
+    }
+
+    public <T> Map<String, T> executeOnAll(boolean readOnly, Supplier<T> work) {
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (String shard : shards) {
+            futures.put(shard, CompletableFuture.supplyAsync(() -> execute(shard, readOnly, work), executor));
+        }
+        Map<String, T> results = new LinkedHashMap<>();
+        try {
+            futures.forEach((shard, future) -> results.put(shard, future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    public static void runOnEachShard(ObjectProvider<ShardTemplate> shardTemplate, Runnable work) {
+        sumOnEachShard(shardTemplate, () -> {
+            work.run();
+            return 0;
+        });
+    }
+
+    public static int sumOnEachShard(ObjectProvider<ShardTemplate> shardTemplate, IntSupplier work) {
+        ShardTemplate template = shardTemplate.getIfAvailable();
+        if (template == null) {
+            return work.getAsInt();
+        }
+        int total = 0;
+        for (String shard : template.shards()) {
+            total += ShardContext.callWith(shard, work::getAsInt);
+        }
+        return total;
+    }
+
+    // 정렬이 없으면 id 순으로 합친다. (정렬 속성은 엔티티의 단순 속성만 가능)
+    public <T> Page<T> findAll(Pageable pageable, Function<Pageable, Page<T>> query) {
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("id");
+        int limit = (int) pageable.getOffset() + pageable.getPageSize();
+        Map<String, Page<T>> pages = executeOnAll(true, () -> query.apply(PageRequest.of(0, limit, sort)));
+
+        List<T> merged = new ArrayList<>();
+        long total = 0;
+        for (Page<T> page : pages.values()) {
+            merged.addAll(page.getContent());
+            total += page.getTotalElements();
+        }
+        merged.sort(comparator(sort));
+        List<T> content = merged.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(content, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort), total);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<T> comparator = Comparator.comparing(
+                    entity -> (Comparable<Object>) new BeanWrapperImpl(entity).getPropertyValue(order.getProperty()),
+                    Comparator.nullsLast(Comparator.<Comparable<Object>>naturalOrder()));
+            if (order.isDescending()) {
+                comparator = comparator.reversed();
+            }
+            result = result == null ? comparator : result.thenComparing(comparator);
+        }
+        return result;
+    }
+}
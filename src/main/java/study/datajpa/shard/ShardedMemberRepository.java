@@ -0,0 +1,45 @@
+package study.datajpa.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import study.datajpa.entitiy.Member;
+import study.datajpa.entitiy.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+/*  샤드 전체 대상 회원/팀 조회, 벌크 수정
+    한 테넌트 안의 조회는 ShardContext(X-Tenant-Id)만 정하고 기존 리포지토리를 그대로 쓰면 된다.
+    여기 메서드가 반환하는 엔티티는 샤드 트랜잭션이 끝난 준영속 상태이므로 지연 로딩(team 등)은 할 수 없다. */
+@Repository
+@ConditionalOnProperty(name = "datajpa.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardedMemberRepository {
+
+    private final ShardTemplate shardTemplate;
+    private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+
+    public Page<Member> findAll(Pageable pageable) {
+        return shardTemplate.findAll(pageable, memberRepository::findAll);
+    }
+
+    public Page<Team> findAllTeams(Pageable pageable) {
+        return shardTemplate.findAll(pageable, teamRepository::findAll);
+    }
+
+    public long count() {
+        return shardTemplate.executeOnAll(true, memberRepository::count).values().stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    // 샤드마다 병렬로 실행하고, 샤드별 트랜잭션이므로 일부 샤드만 반영될 수 있다. (실패 시 예외)
+    public int bulkAgePlus(int age) {
+        return shardTemplate.executeOnAll(false, () -> memberRepository.bulkAgePlus(age)).values().stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+}
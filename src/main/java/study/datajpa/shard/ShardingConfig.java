@@ -0,0 +1,43 @@
+package study.datajpa.shard;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*  샤딩 설정 (datajpa.sharding.enabled=true 일 때)
+    spring.datasource 대신 샤드 라우팅 DataSource 하나를 등록한다.
+    EntityManagerFactory, 스프링 데이터 JPA 리포지토리, EntityManager 기반 리포지토리, JdbcTemplate 은 모두 이 DataSource 를 쓰므로
+    ShardContext 만 정해주면 코드 변경 없이 해당 샤드에서 실행된다. */
+@Configuration
+@ConditionalOnProperty(name = "datajpa.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardDataSources shardDataSources(ShardProperties properties) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("datajpa.sharding.shards is empty");
+        }
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        properties.getShards().forEach((name, shard) -> dataSources.put(name, DataSourceBuilder.create()
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .build()));
+        return new ShardDataSources(dataSources);
+    }
+
+    @Bean
+    public DataSource dataSource(ShardProperties properties, ShardDataSources shardDataSources) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(new LinkedHashMap<>(shardDataSources.asMap()));
+        routing.setDefaultTargetDataSource(shardDataSources.get(properties.defaultShard()));
+        return routing;
+    }
+}
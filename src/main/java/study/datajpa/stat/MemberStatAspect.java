@@ -0,0 +1,23 @@
+package study.datajpa.stat;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/*  벌크 수정 쿼리는 영속성 컨텍스트와 엔티티 리스너를 거치지 않으므로
+    bulkAgePlus 실행 직후 같은 트랜잭션 안에서 집계 테이블을 보정한다. */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MemberStatAspect {
+
+    private final MemberStatService memberStatService;
+
+    @AfterReturning(pointcut = "(execution(int study.datajpa.repository.MemberRepository.bulkAgePlus(int))" +
+            " || execution(int study.datajpa.repository.MemberJpaRepository.bulkAgePlus(int))) && args(age)",
+            argNames = "age")
+    public void afterBulkAgePlus(int age) {
+        memberStatService.agesShifted(age);
+    }
+}
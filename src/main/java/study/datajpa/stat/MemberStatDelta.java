@@ -0,0 +1,63 @@
+package study.datajpa.stat;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/*  회원 추가/삭제를 버킷(나이, 팀)별로 합친 증감분 - MemberStatService.apply 가 버킷마다 한 번씩 JDBC 배치로 반영한다.
+    나이 변경은 (이전 나이 삭제 + 새 나이 추가), 팀 변경은 (이전 팀 삭제 + 새 팀 추가)로 기록한다.
+    키 순서(TreeMap)대로 반영하므로 여러 트랜잭션이 같은 집계 행을 같은 순서로 잠근다. */
+public class MemberStatDelta {
+
+    final Map<Integer, Long> ageCounts = new TreeMap<>();
+    final Map<Long, TeamDelta> teams = new TreeMap<>();
+
+    public void added(int age, Long teamId) {
+        ageCounts.merge(age, 1L, Long::sum);
+        if (teamId != null) {
+            teams.computeIfAbsent(teamId, id -> new TeamDelta()).added(age);
+        }
+    }
+
+    public void removed(int age, Long teamId) {
+        removed(age, teamId, 1);
+    }
+
+    // 같은 (나이, 팀) 회원 count 명 - group by 로 모아 읽은 결과를 그대로 넣는다.
+    public void removed(int age, Long teamId, long count) {
+        ageCounts.merge(age, -count, Long::sum);
+        if (teamId != null) {
+            teams.computeIfAbsent(teamId, id -> new TeamDelta()).removed(age, count);
+        }
+    }
+
+    public boolean isEmpty() {
+        return ageCounts.isEmpty() && teams.isEmpty();
+    }
+
+    void clear() {
+        ageCounts.clear();
+        teams.clear();
+    }
+
+    // 팀 하나의 증감 - 추가된 나이의 최소/최대는 바로 반영하고, 빠진 회원이 있으면 최소/최대를 다시 계산한다.
+    static final class TeamDelta {
+        long count;
+        long ageSum;
+        Integer addedMin;
+        Integer addedMax;
+        boolean removed;
+
+        void added(int age) {
+            count++;
+            ageSum += age;
+            addedMin = addedMin == null ? age : Math.min(addedMin, age);
+            addedMax = addedMax == null ? age : Math.max(addedMax, age);
+        }
+
+        void removed(int age, long members) {
+            count -= members;
+            ageSum -= age * members;
+            removed = true;
+        }
+    }
+}
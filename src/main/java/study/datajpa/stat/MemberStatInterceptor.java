@@ -0,0 +1,22 @@
+package study.datajpa.stat;
+
+import org.hibernate.Interceptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Iterator;
+
+/*  하이버네이트는 flush 마지막에 JDBC 배치를 실행한 뒤 postFlush 를 호출한다.
+    엔티티 콜백(@PostPersist 등)은 배치에 담긴 시점에 불리므로, DB의 회원 행을 다시 읽는 증감은 여기서 반영한다. */
+public class MemberStatInterceptor implements Interceptor {
+
+    private final ObjectProvider<MemberStatService> memberStatService;
+
+    public MemberStatInterceptor(ObjectProvider<MemberStatService> memberStatService) {
+        this.memberStatService = memberStatService;
+    }
+
+    @Override
+    public void postFlush(Iterator<Object> entities) {
+        memberStatService.getObject().applyPending();
+    }
+}
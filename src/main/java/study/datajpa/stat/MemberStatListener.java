@@ -0,0 +1,89 @@
+package study.datajpa.stat;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+import study.datajpa.entitiy.Member;
+import study.datajpa.entitiy.Team;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/*  Member 엔티티 리스너 - 엔티티 생명주기 이벤트로 집계 테이블을 증분 갱신한다.
+    스프링 부트는 하이버네이트에 SpringBeanContainer 를 등록하므로 엔티티 리스너도 생성자 주입을 받을 수 있다.
+    수정 전 값(나이, 팀)을 알기 위해 로딩/저장 시점의 스냅샷을 보관한다.
+    Member 는 equals/hashCode 를 재정의하지 않으므로 WeakHashMap 이 동일성 기준으로 동작하고, 엔티티가 GC 되면 함께 사라진다.
+    팀 회원 수(team.member_count)도 같은 증감분으로 반영된다. 생성자/changeTeam 시점이 아니라 실제로 flush 된 변경만 센다. */
+public class MemberStatListener {
+
+    private final ObjectProvider<MemberStatService> statService;
+    private final Map<Member, Snapshot> snapshots = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public MemberStatListener(ObjectProvider<MemberStatService> statService) {
+        this.statService = statService;
+    }
+
+    @PostLoad
+    public void postLoad(Member member) {
+        snapshots.put(member, Snapshot.of(member));
+    }
+
+    @PostPersist
+    public void postPersist(Member member) {
+        Snapshot current = Snapshot.of(member);
+        MemberStatService service = statService.getObject();
+        service.memberAdded(current.age(), current.teamId());
+        teamCountChanged(current, 1);
+        snapshots.put(member, current);
+    }
+
+    @PostUpdate
+    public void postUpdate(Member member) {
+        Snapshot current = Snapshot.of(member);
+        Snapshot before = snapshots.put(member, current);
+        if (before == null || before.sameAs(current)) {
+            return;
+        }
+        MemberStatService service = statService.getObject();
+        service.memberRemoved(before.age(), before.teamId());
+        service.memberAdded(current.age(), current.teamId());
+        if (!Objects.equals(before.teamId(), current.teamId())) {
+            teamCountChanged(before, -1);
+            teamCountChanged(current, 1);
+        }
+    }
+
+    @PostRemove
+    public void postRemove(Member member) {
+        Snapshot before = snapshots.remove(member);
+        if (before == null) {
+            before = Snapshot.of(member);
+        }
+        statService.getObject().memberRemoved(before.age(), before.teamId());
+        teamCountChanged(before, -1);
+    }
+
+    // DB 는 flush 이후 증감분으로 맞추고, 이미 로딩된 팀 엔티티는 메모리 값도 같이 맞춘다. (프록시는 초기화하지 않음)
+    private static void teamCountChanged(Snapshot snapshot, int delta) {
+        if (snapshot.team() != null && Hibernate.isInitialized(snapshot.team())) {
+            snapshot.team().applyMemberCountDelta(delta);
+        }
+    }
+
+    private record Snapshot(int age, Long teamId, Team team) {
+        static Snapshot of(Member member) {
+            // 지연 로딩 프록시의 id 조회는 프록시를 초기화하지 않는다.
+            Team team = member.getTeam();
+            return new Snapshot(member.getAge(), team == null ? null : team.getId(), team);
+        }
+
+        boolean sameAs(Snapshot other) {
+            return age == other.age && Objects.equals(teamId, other.teamId);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package study.datajpa.stat;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.stat.MemberStatDelta.TeamDelta;
+import study.datajpa.util.LongIds;
+import study.datajpa.util.TransactionScoped;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*  회원 집계 테이블(member_age_stat, team_stat)과 팀 회원 수(team.member_count) 유지 서비스
+    엔티티 콜백(flush 도중)에서 호출되므로 EntityManager 대신 같은 트랜잭션의 JDBC 커넥션(JdbcTemplate)을 사용한다.
+    증감은 모두 "update ... set x = x + ?" 형태로 DB에서 원자적으로 처리된다.
+
+    엔티티 콜백은 JDBC 배치에 담기는 시점에 불리므로, 같은 flush 의 다른 insert/update/delete 가 아직 실행되지 않았을 수 있다.
+    그래서 콜백에서는 트랜잭션의 MemberStatDelta 에 모아두기만 하고, 배치가 실행된 뒤(postFlush) 버킷별로 한 번에 반영한다.
+    팀의 최소/최대 나이도 그때 member 테이블에서 다시 읽으므로 같은 flush 에서 빠진 회원이 섞이지 않는다. */
+@Service
+@RequiredArgsConstructor
+public class MemberStatService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 엔티티 콜백용 - 트랜잭션 안에서는 flush 가 끝날 때까지 모아둔다.
+    public void memberAdded(int age, Long teamId) {
+        MemberStatDelta delta = pending();
+        delta.added(age, teamId);
+        applyIfDetached(delta);
+    }
+
+    public void memberRemoved(int age, Long teamId) {
+        MemberStatDelta delta = pending();
+        delta.removed(age, teamId);
+        applyIfDetached(delta);
+    }
+
+    // MemberStatInterceptor 가 flush 직후(배치 실행 이후) 호출한다.
+    public void applyPending() {
+        Pending pending = TransactionScoped.find(Pending.class);
+        if (pending != null && !pending.isEmpty()) {
+            apply(pending);
+            pending.clear();
+        }
+    }
+
+    /*  JDBC 로 회원을 직접 옮긴 쪽(write-behind, 보관, id 삭제)은 DML 을 실행한 뒤 모은 증감분을 바로 반영한다.
+        버킷(나이, 팀)마다 한 건씩 JDBC 배치로 보내므로 회원 수가 아니라 버킷 수에 비례한다. */
+    public void apply(MemberStatDelta delta) {
+        applyAgeCounts(delta.ageCounts);
+        applyTeams(delta.teams);
+    }
+
+    /*  bulkAgePlus(age) 실행 후 호출
+        age 이상이던 회원은 모두 age + 1 이상이 되었으므로, age 이상 버킷만 다시 계산하고
+        팀 집계는 옮겨간 회원 수만큼 합계를 늘리고 최소/최대를 한 칸씩 민다. */
+    public void agesShifted(int age) {
+        jdbcTemplate.update("delete from member_age_stat where age >= ?", age);
+        jdbcTemplate.update("insert into member_age_stat (age, member_count)" +
+                " select m.age, count(*) from member m where m.age >= ? group by m.age", age);
+
+        jdbcTemplate.update("update team_stat ts set" +
+                " age_sum = age_sum + (select count(*) from member m where m.team_id = ts.team_id and m.age > ?)," +
+                " min_age = case when min_age >= ? then min_age + 1 else min_age end," +
+                " max_age = case when max_age >= ? then max_age + 1 else max_age end" +
+                " where max_age >= ?", age, age, age, age);
+    }
+
+    // 전체 재계산 - 집계가 어긋났을 때나 초기 적재, 대량 삭제 후에 사용 (팀 회원 수 포함)
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.update("delete from member_age_stat");
+        jdbcTemplate.update("insert into member_age_stat (age, member_count)" +
+                " select m.age, count(*) from member m group by m.age");
+
+        jdbcTemplate.update("delete from team_stat");
+        jdbcTemplate.update("insert into team_stat (team_id, member_count, age_sum, min_age, max_age)" +
+                " select m.team_id, count(*), sum(m.age), min(m.age), max(m.age) from member m" +
+                " where m.team_id is not null group by m.team_id");
+
+        jdbcTemplate.update("update team t set member_count = coalesce(" +
+                "(select ts.member_count from team_stat ts where ts.team_id = t.team_id), 0)");
+    }
+
+    private void applyAgeCounts(Map<Integer, Long> ageCounts) {
+        List<Object[]> updates = new ArrayList<>();
+        List<Object> emptied = new ArrayList<>();
+        ageCounts.forEach((age, count) -> {
+            if (count != 0) {
+                updates.add(new Object[]{count, age});
+            }
+            if (count < 0) {
+                emptied.add(age);
+            }
+        });
+        if (updates.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate("update member_age_stat set member_count = member_count + ? where age = ?", updates);
+        for (int i = 0; i < updated.length; i++) {
+            Object[] args = updates.get(i);
+            if (updated[i] == 0 && (long) args[0] > 0) {
+                insertOrUpdate("insert into member_age_stat (age, member_count) values (?, ?)", new Object[]{args[1], args[0]},
+                        "update member_age_stat set member_count = member_count + ? where age = ?", args);
+            }
+        }
+        if (!emptied.isEmpty()) {
+            jdbcTemplate.update("delete from member_age_stat where member_count <= 0 and age in ("
+                    + LongIds.placeholders(emptied.size()) + ")", emptied.toArray());
+        }
+    }
+
+    private void applyTeams(Map<Long, TeamDelta> teams) {
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> memberCounts = new ArrayList<>();
+        List<Long> shrunk = new ArrayList<>();
+        List<Long> emptied = new ArrayList<>();
+        teams.forEach((teamId, delta) -> {
+            updates.add(new Object[]{delta.count, delta.ageSum, delta.addedMin, delta.addedMax, teamId});
+            if (delta.count != 0) {
+                memberCounts.add(new Object[]{delta.count, teamId});
+            }
+            if (delta.removed) {
+                shrunk.add(teamId);
+            }
+            if (delta.count < 0) {
+                emptied.add(teamId);
+            }
+        });
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        // least/greatest 는 null 인자를 무시한다. (추가된 회원이 없으면 기존 값 유지)
+        String update = "update team_stat set member_count = member_count + ?, age_sum = age_sum + ?," +
+                " min_age = least(min_age, ?), max_age = greatest(max_age, ?) where team_id = ?";
+        int[] argTypes = {Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.INTEGER, Types.BIGINT};
+        int[] updated = jdbcTemplate.batchUpdate(update, updates, argTypes);
+        for (int i = 0; i < updated.length; i++) {
+            Object[] args = updates.get(i);
+            if (updated[i] == 0 && (long) args[0] > 0) {
+                insertOrUpdate("insert into team_stat (team_id, member_count, age_sum, min_age, max_age) values (?, ?, ?, ?, ?)",
+                        new Object[]{args[4], args[0], args[1], args[2], args[3]}, update, args);
+            }
+        }
+
+        // 빠진 회원이 최소/최대였을 수 있는 팀만 회원 행에서 다시 읽는다. (배치가 실행된 뒤라 이번 변경이 모두 보인다)
+        for (int from = 0; from < shrunk.size(); from += LongIds.IN_CHUNK) {
+            List<Long> chunk = shrunk.subList(from, Math.min(from + LongIds.IN_CHUNK, shrunk.size()));
+            jdbcTemplate.update("update team_stat ts set" +
+                    " min_age = (select min(m.age) from member m where m.team_id = ts.team_id)," +
+                    " max_age = (select max(m.age) from member m where m.team_id = ts.team_id)" +
+                    " where ts.team_id in (" + LongIds.placeholders(chunk.size()) + ")", chunk.toArray());
+        }
+        for (int from = 0; from < emptied.size(); from += LongIds.IN_CHUNK) {
+            List<Long> chunk = emptied.subList(from, Math.min(from + LongIds.IN_CHUNK, emptied.size()));
+            jdbcTemplate.update("delete from team_stat where member_count <= 0 and team_id in ("
+                    + LongIds.placeholders(chunk.size()) + ")", chunk.toArray());
+        }
+        if (!memberCounts.isEmpty()) {
+            jdbcTemplate.batchUpdate("update team set member_count = member_count + ? where team_id = ?", memberCounts);
+        }
+    }
+
+    /*  처음 생기는 버킷 - 같은 버킷의 첫 회원을 두 트랜잭션이 동시에 추가하면 늦은 쪽 insert 가 PK 위반으로 실패한다.
+        H2 는 실패한 문장만 되돌리고 트랜잭션은 그대로 두므로, 그때는 먼저 만들어진 행에 update 한다.
+        그 사이 행이 다시 지워졌으면(회원 수 0) insert 부터 다시 시도한다. */
+    private void insertOrUpdate(String insertSql, Object[] insertArgs, String updateSql, Object[] updateArgs) {
+        while (true) {
+            try {
+                jdbcTemplate.update(insertSql, insertArgs);
+                return;
+            } catch (DuplicateKeyException e) {
+                if (jdbcTemplate.update(updateSql, updateArgs) > 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static MemberStatDelta pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new MemberStatDelta();
+        }
+        return TransactionScoped.getOrRegister(Pending.class, Pending::new);
+    }
+
+    // 트랜잭션 동기화가 없으면(flush 를 기다릴 트랜잭션이 없으면) 바로 반영한다.
+    private void applyIfDetached(MemberStatDelta delta) {
+        if (!(delta instanceof Pending)) {
+            apply(delta);
+        }
+    }
+
+    // 트랜잭션마다 flush 를 기다리는 증감분 - REQUIRES_NEW 로 중단된 바깥 트랜잭션의 증감분과 섞이지 않는다.
+    private static final class Pending extends MemberStatDelta implements TransactionSynchronization {
+    }
+}
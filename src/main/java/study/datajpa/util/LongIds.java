@@ -0,0 +1,47 @@
+package study.datajpa.util;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+/*  long[] id 목록 유틸 - Long 박싱 없이 id 를 모으고, in 절 청크 단위로 바인딩한다.
+    id 100만 개 기준 List<Long> 은 (객체 16바이트 + 참조 4~8바이트) 약 20MB 이상, long[] 은 8MB. */
+public final class LongIds {
+
+    // in 절 하나에 넣는 최대 id 수
+    public static final int IN_CHUNK = 1000;
+
+    // JdbcTemplate.query 에 넘기는 추출기 (메서드 참조는 RowCallbackHandler 와 모호해서 타입을 고정해 둔다)
+    public static final ResultSetExtractor<long[]> EXTRACTOR = LongIds::readAll;
+
+    private LongIds() {
+    }
+
+    // 첫 번째 컬럼의 long 값을 모두 읽는다. (배열을 두 배씩 늘린다)
+    public static long[] readAll(ResultSet rs) throws SQLException {
+        long[] ids = new long[256];
+        int size = 0;
+        while (rs.next()) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = rs.getLong(1);
+        }
+        return size == ids.length ? ids : Arrays.copyOf(ids, size);
+    }
+
+    public static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    // ids[from, to) 를 parameterIndex 부터 setLong 으로 바인딩한다.
+    public static void bind(PreparedStatement ps, int parameterIndex, long[] ids, int from, int to) throws SQLException {
+        for (int i = from; i < to; i++) {
+            ps.setLong(parameterIndex++, ids[i]);
+        }
+    }
+}
@@ -18,6 +18,7 @@ public class P6SpySqlFormatter implements MessageFormattingStrategy {
 
     @Override
     public String formatMessage(int connectionId, String now, long elapsed, String category, String prepared, String sql, String url) {
+        SqlStatementCollector.record(category, elapsed, prepared, sql);
         sql = formatSql(category, sql);
         return String.format("[%s] | %d ms | %s", category, elapsed, formatSql(category, sql));
     }
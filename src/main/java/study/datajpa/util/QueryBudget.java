@@ -0,0 +1,96 @@
+package study.datajpa.util;
+
+/*  요청(스레드) 단위 SQL 사용량 - 실행한 문장 수, JDBC 누적 시간(ms), 영속성 컨텍스트의 관리 엔티티 수
+    SqlStatementCollector 와 같은 이유로 static(ThreadLocal) 저장소를 사용하고, QueryBudgetJdbcListener 에서 문장마다 갱신한다.
+    begin() ~ end() 사이에 같은 스레드에서 실행된 문장만 센다. (백그라운드 스레드의 쓰기 지연, 릴레이 등은 제외)
+    예산은 record() 에서 문장마다 확인한다 - 엄격 모드면 예산을 처음 넘긴 문장에서 바로 실패한다. */
+public final class QueryBudget {
+
+    private static final ThreadLocal<Usage> current = new ThreadLocal<>();
+
+    private QueryBudget() {
+    }
+
+    public static Usage begin(String request, Limits limits) {
+        Usage usage = new Usage(request, limits);
+        current.set(usage);
+        return usage;
+    }
+
+    public static Usage current() {
+        return current.get();
+    }
+
+    public static void end() {
+        current.remove();
+    }
+
+    /*  문장 하나가 끝날 때마다 호출한다. entities 는 그 시점의 관리 엔티티 수 (영속성 컨텍스트가 없으면 -1)
+        배치 실행(executeBatch)도 한 번만 기록되므로 DB 왕복 횟수가 된다. (addBatch 는 세지 않는다) */
+    public static void record(long elapsedMillis, int entities) {
+        Usage usage = current.get();
+        if (usage == null) {
+            return;
+        }
+        usage.statements++;
+        usage.jdbcMillis += elapsedMillis;
+        usage.recordEntities(entities);
+        usage.check();
+    }
+
+    public record Limits(int maxStatements, int maxEntities, long maxJdbcMillis, boolean strict) {
+    }
+
+    public static final class Usage {
+        private final String request;
+        private final Limits limits;
+        private int statements;
+        private long jdbcMillis;
+        private int entities = -1;
+        private boolean failed;
+
+        private Usage(String request, Limits limits) {
+            this.request = request;
+            this.limits = limits;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getJdbcMillis() {
+            return jdbcMillis;
+        }
+
+        // 영속성 컨텍스트를 볼 수 없었던 요청이면 -1
+        public int getEntities() {
+            return entities;
+        }
+
+        public void recordEntities(int entities) {
+            this.entities = Math.max(this.entities, entities);
+        }
+
+        // 엄격 모드에서 예산을 넘었으면 한 번만 던진다. (실패 이후의 정리 작업 문장까지 실패시키지 않도록)
+        public void check() {
+            if (limits.strict() && !failed && isExceeded()) {
+                failed = true;
+                throw new QueryBudgetExceededException(request, this);
+            }
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public boolean isExceeded() {
+            return statements > limits.maxStatements() || entities > limits.maxEntities()
+                    || jdbcMillis > limits.maxJdbcMillis();
+        }
+
+        @Override
+        public String toString() {
+            return "statements=" + statements + ", entities=" + entities + ", jdbcMillis=" + jdbcMillis;
+        }
+    }
+}
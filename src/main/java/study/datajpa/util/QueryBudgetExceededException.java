@@ -0,0 +1,11 @@
+package study.datajpa.util;
+
+/*  엄격 모드(datajpa.query-budget.strict=true)에서 요청이 예산을 넘으면 던진다.
+    JDBC 실행 중에 던지므로 IllegalStateException 이 아닌 RuntimeException 을 상속한다.
+    (스프링 데이터의 예외 변환이 IllegalStateException 을 InvalidDataAccessApiUsageException 으로 바꾼다.) */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String request, QueryBudget.Usage usage) {
+        super("query budget exceeded: " + request + " (" + usage + ")");
+    }
+}
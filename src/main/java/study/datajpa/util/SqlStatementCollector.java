@@ -0,0 +1,76 @@
+package study.datajpa.util;
+
+import com.p6spy.engine.logging.Category;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*  P6Spy 로 실행된 SQL 을 모양(? 바인딩 전 prepared 문) 기준으로 모아두는 수집기
+    P6Spy 는 MessageFormattingStrategy 를 클래스 이름으로 직접 생성하므로 스프링 빈이 아닌 static 저장소를 사용한다.
+    모양별로 실행 횟수, 누적 시간, 값이 바인딩된 샘플 SQL 하나를 보관한다. (인덱스 어드바이저의 EXPLAIN 용) */
+public final class SqlStatementCollector {
+
+    private static final int MAX_STATEMENTS = 500;
+    private static final Map<String, StatementStat> statements = new ConcurrentHashMap<>();
+
+    private SqlStatementCollector() {
+    }
+
+    public static void record(String category, long elapsed, String prepared, String sql) {
+        if (!Category.STATEMENT.getName().equals(category) || prepared == null || sql == null) {
+            return;
+        }
+        String trimmed = prepared.trim().toLowerCase(Locale.ROOT);
+        if (!(trimmed.startsWith("select") || trimmed.startsWith("update") || trimmed.startsWith("delete"))) {
+            return;
+        }
+        StatementStat stat = statements.get(prepared);
+        if (stat == null) {
+            if (statements.size() >= MAX_STATEMENTS) {
+                return;
+            }
+            stat = statements.computeIfAbsent(prepared, key -> new StatementStat(key, sql));
+        }
+        stat.count.increment();
+        stat.elapsed.add(elapsed);
+    }
+
+    public static List<StatementStat> snapshot() {
+        return List.copyOf(statements.values());
+    }
+
+    public static void clear() {
+        statements.clear();
+    }
+
+    public static final class StatementStat {
+        private final String prepared;
+        private final String sampleSql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder elapsed = new LongAdder();
+
+        private StatementStat(String prepared, String sampleSql) {
+            this.prepared = prepared;
+            this.sampleSql = sampleSql;
+        }
+
+        public String getPrepared() {
+            return prepared;
+        }
+
+        public String getSampleSql() {
+            return sampleSql;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getElapsedMillis() {
+            return elapsed.sum();
+        }
+    }
+}
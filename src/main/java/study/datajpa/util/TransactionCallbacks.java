@@ -0,0 +1,25 @@
+package study.datajpa.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*  커밋 이후 작업 등록 - 메모리 상태(검색 색인 등)는 DB 변경이 커밋된 뒤에만 반영해야 롤백과 어긋나지 않는다.
+    트랜잭션 동기화가 없으면(트랜잭션 밖에서 JDBC 로 바로 반영한 경우) 바로 실행한다. */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
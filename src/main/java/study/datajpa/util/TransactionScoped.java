@@ -0,0 +1,38 @@
+package study.datajpa.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/*  트랜잭션마다 하나씩 두는 상태 - 상태 객체 자체를 TransactionSynchronization 으로 등록하고, 등록된 목록에서 찾는다.
+    bindResource 로 묶은 임의의 키는 REQUIRES_NEW 로 바깥 트랜잭션을 일시 중단해도 그대로 보이지만,
+    동기화 목록은 트랜잭션과 함께 중단/재개되므로 안쪽 트랜잭션이 바깥 트랜잭션의 상태를 건드리지 않는다. */
+public final class TransactionScoped {
+
+    private TransactionScoped() {
+    }
+
+    // 현재 트랜잭션에 등록된 상태 (없거나 트랜잭션 동기화가 없으면 null)
+    public static <T extends TransactionSynchronization> T find(Class<T> type) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (type.isInstance(synchronization)) {
+                return type.cast(synchronization);
+            }
+        }
+        return null;
+    }
+
+    // 현재 트랜잭션에 등록된 상태, 없으면 만들어서 등록한다. (트랜잭션 동기화가 있을 때만 호출)
+    public static <T extends TransactionSynchronization> T getOrRegister(Class<T> type, Supplier<T> factory) {
+        T state = find(type);
+        if (state == null) {
+            state = factory.get();
+            TransactionSynchronizationManager.registerSynchronization(state);
+        }
+        return state;
+    }
+}
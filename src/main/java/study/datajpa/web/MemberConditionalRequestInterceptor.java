@@ -0,0 +1,103 @@
+package study.datajpa.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import study.datajpa.dto.MemberVersionDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/*  회원 조회 API 의 HTTP 조건부 요청 처리 (ETag, Last-Modified)
+    - /members/{id}, /members2/{id}: lastModifiedDate 한 컬럼만 조회해서 버전을 만든다. (엔티티, 도메인 클래스 컨버터보다 먼저 실행)
+    - /members: 회원 수 + max(lastModifiedDate) + max(id) 를 목록 버전으로 쓰고, 페이지(쿼리 스트링)별로 ETag 를 다르게 만든다.
+      회원 삭제/보관은 max(lastModifiedDate) 를 바꾸지 않으므로 목록에는 Last-Modified 를 주지 않는다. (ETag 로만 판단)
+    같은 URL 이 Accept 에 따라 JSON 또는 CBOR 로 응답하므로 ETag 에 응답 형식을 넣고 Vary: Accept 를 붙인다.
+    If-None-Match / If-Modified-Since 가 일치하면 컨트롤러를 실행하지 않고 304 를 응답한다. */
+@Component
+@RequiredArgsConstructor
+public class MemberConditionalRequestInterceptor implements HandlerInterceptor {
+
+    private final MemberRepository memberRepository;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String etag;
+        LocalDateTime lastModified;
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String id = variables == null ? null : variables.get("id");
+        if (id != null) {
+            Long memberId;
+            try {
+                memberId = Long.valueOf(id);
+            } catch (NumberFormatException e) {
+                return true;
+            }
+            Optional<LocalDateTime> version = memberRepository.findLastModifiedDateById(memberId);
+            if (version.isEmpty() || version.get() == null) {
+                return true;
+            }
+            lastModified = version.get();
+            etag = "W/\"m" + memberId + "-" + toMillis(lastModified) + "-" + representation(request) + "\"";
+        } else {
+            MemberVersionDto version = memberRepository.findMemberVersion();
+            LocalDateTime maxModified = version.getLastModifiedDate();
+            lastModified = null;
+            String page = request.getQueryString() == null ? "" : request.getQueryString();
+            etag = "W/\"l" + version.getCount() + "-" + (maxModified == null ? 0 : toMillis(maxModified))
+                    + "-" + version.getMaxId() + "-" + representation(request) + "-" + Integer.toHexString(page.hashCode()) + "\"";
+        }
+
+        if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        return !webRequest.checkNotModified(etag, lastModified == null ? -1 : toMillis(lastModified));
+    }
+
+    // 메시지 컨버터가 고를 응답 형식 - q 값이 높은 것부터 보고 CBOR 이 먼저 나오면 cbor, 그 외(*/* 포함)는 json
+    private static String representation(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return "json";
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return "json";
+        }
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() > 0 && MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                return "cbor";
+            }
+            if (mediaType.getQualityValue() > 0 && mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "json";
+            }
+        }
+        return mediaTypes.isEmpty() ? "json" : mediaTypes.get(0).getType() + "-" + mediaTypes.get(0).getSubtype();
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,114 @@
+package study.datajpa.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import study.datajpa.cache.DataChangeTracker;
+import study.datajpa.shard.ShardContext;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*  회원 조회 API 응답 캐시 (datajpa.response-cache.enabled=true 일 때)
+    샤드 + URL(쿼리 스트링 = 페이지, 정렬 포함) + Accept 를 키로 200 응답 본문과 헤더(ETag, Last-Modified, Content-Type 등)를 보관한다.
+    저장할 때의 DataChangeTracker 세대가 현재 세대와 다르면 무효 - 회원/팀이 바뀌면 전부 다시 만든다.
+    캐시가 맞으면 DB를 전혀 조회하지 않고 304 또는 보관한 헤더와 본문을 응답한다. */
+@Component
+public class MemberResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final List<String> PATTERNS = List.of("/members", "/members/{id:\\d+}", "/members2/{id:\\d+}");
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final DataChangeTracker tracker;
+    private final boolean enabled;
+    private final Map<String, CachedResponse> cache;
+
+    public MemberResponseCacheFilter(DataChangeTracker tracker,
+                                     @Value("${datajpa.response-cache.enabled:false}") boolean enabled,
+                                     @Value("${datajpa.response-cache.max-entries:1000}") int maxEntries) {
+        this.tracker = tracker;
+        this.enabled = enabled;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PATTERNS.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // 샤딩을 켜면 같은 URL 이라도 테넌트(샤드)마다 다른 데이터다. (TenantFilter 가 먼저 실행되어 샤드를 정한다)
+        String key = ShardContext.current() + "|" + request.getRequestURI() + "?" + request.getQueryString()
+                + "|" + request.getHeader(HttpHeaders.ACCEPT);
+        long generation = tracker.generation();
+
+        CachedResponse cached = cache.get(key);
+        if (cached != null && cached.generation() == generation) {
+            cached.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            // 컨트롤러를 거칠 때와 같은 규칙(If-None-Match 우선, 없으면 If-Modified-Since)으로 304 를 판단한다.
+            if (new ServletWebRequest(request, response).checkNotModified(cached.etag(), cached.lastModified())) {
+                return;
+            }
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        // 처리하는 동안 변경이 있었으면 이전 세대 데이터일 수 있으므로 저장하지 않는다.
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && tracker.generation() == generation
+                && !wrapper.containsHeader(HttpHeaders.SET_COOKIE)) {
+            cache.put(key, new CachedResponse(generation, wrapper.getHeader(HttpHeaders.ETAG),
+                    lastModified(wrapper), headers(wrapper), wrapper.getContentAsByteArray()));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    // 본문 길이는 응답할 때 다시 정한다.
+    private static Map<String, List<String>> headers(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+                headers.putIfAbsent(name, List.copyOf(response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    private static long lastModified(HttpServletResponse response) {
+        String value = response.getHeader(HttpHeaders.LAST_MODIFIED);
+        if (value == null) {
+            return -1;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.LAST_MODIFIED, value);
+        return headers.getLastModified();
+    }
+
+    private record CachedResponse(long generation, String etag, long lastModified,
+                                  Map<String, List<String>> headers, byte[] body) {
+    }
+}
@@ -0,0 +1,69 @@
+package study.datajpa.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import study.datajpa.util.QueryBudget;
+
+import java.io.IOException;
+
+/*  요청 단위 쿼리 예산 (datajpa.query-budget.enabled=true 일 때)
+    OSIV + 지연 로딩으로 한 요청이 수백 개의 SQL, 수천 개의 관리 엔티티를 만드는 경우를 잡는다.
+    - 사용량을 X-Query-Count, X-Entity-Count, X-Jdbc-Time-Ms 응답 헤더로 알려준다.
+      (메시지 컨버터가 본문을 쓰면서 응답을 커밋하므로, 본문을 버퍼링해두고 헤더를 붙인 뒤 내보낸다.)
+    - 예산을 넘으면 경고 로그, strict 이면 QueryBudgetExceededException 으로 요청을 실패시킨다. (테스트용)
+      문장 수, JDBC 시간은 예산을 넘긴 문장에서 바로 실패한다. (QueryBudget.record) 여기서는 요청이 끝난 뒤의 엔티티 수만 다시 확인한다.
+    응답 캐시 필터보다 바깥에서 실행되어 캐시 적중 요청도 0건으로 보고된다. 스트리밍 export 는 버퍼링하지 않도록 제외한다. */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final QueryBudget.Limits limits;
+
+    public QueryBudgetFilter(@Value("${datajpa.query-budget.enabled:false}") boolean enabled,
+                             @Value("${datajpa.query-budget.max-statements:50}") int maxStatements,
+                             @Value("${datajpa.query-budget.max-entities:1000}") int maxEntities,
+                             @Value("${datajpa.query-budget.max-jdbc-millis:500}") long maxJdbcMillis,
+                             @Value("${datajpa.query-budget.strict:false}") boolean strict) {
+        this.enabled = enabled;
+        this.limits = new QueryBudget.Limits(maxStatements, maxEntities, maxJdbcMillis, strict);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getRequestURI().endsWith("/members/export");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String target = request.getMethod() + " " + request.getRequestURI();
+        QueryBudget.Usage usage = QueryBudget.begin(target, limits);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            QueryBudget.end();
+        }
+
+        wrapper.setHeader("X-Query-Count", String.valueOf(usage.getStatements()));
+        wrapper.setHeader("X-Entity-Count", String.valueOf(usage.getEntities()));
+        wrapper.setHeader("X-Jdbc-Time-Ms", String.valueOf(usage.getJdbcMillis()));
+
+        if (usage.isExceeded()) {
+            usage.check();
+            log.warn("query budget exceeded: {} ({})", target, usage);
+        }
+        wrapper.copyBodyToResponse();
+    }
+}
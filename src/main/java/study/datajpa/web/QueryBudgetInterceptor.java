@@ -0,0 +1,40 @@
+package study.datajpa.web;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.HandlerInterceptor;
+import study.datajpa.util.QueryBudget;
+
+/*  요청이 끝날 때 영속성 컨텍스트의 관리 엔티티 수를 하이버네이트 세션 통계에서 읽는다.
+    OSIV 인터셉터보다 나중에 등록(order)해서, 응답 직렬화 중의 지연 로딩까지 끝난 뒤
+    OSIV 가 EntityManager 를 닫기 전에 afterCompletion 이 실행되도록 한다. */
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    private final EntityManagerFactory emf;
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryBudget.Usage usage = QueryBudget.current();
+        if (usage == null) {
+            return;
+        }
+        usage.recordEntities(managedEntities(emf));
+    }
+
+    // 현재 스레드에 바인딩된 영속성 컨텍스트의 관리 엔티티 수 (없으면 -1)
+    static int managedEntities(EntityManagerFactory emf) {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+        if (holder == null || !holder.getEntityManager().isOpen()) {
+            return -1;
+        }
+        return holder.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount();
+    }
+}
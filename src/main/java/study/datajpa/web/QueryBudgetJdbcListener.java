@@ -0,0 +1,30 @@
+package study.datajpa.web;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.util.QueryBudget;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/*  P6Spy 데이터소스 프록시의 JDBC 이벤트로 문장 수와 JDBC 시간을 센다.
+    p6spy 스타터가 JdbcEventListener 빈을 프록시에 직접 붙이므로 로그 설정(decorator.datasource.p6spy.enable-logging)과
+    무관하게 호출된다. (부하 테스트처럼 SQL 로그를 끈 상태에서도 예산이 동작한다)
+    문장마다 관리 엔티티 수도 함께 읽어서, 엔티티 예산도 요청이 끝나기 전에 넘긴 시점에서 확인한다. */
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetJdbcListener extends SimpleJdbcEventListener {
+
+    private final EntityManagerFactory emf;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (QueryBudget.current() == null) {
+            return;
+        }
+        QueryBudget.record(TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), QueryBudgetInterceptor.managedEntities(emf));
+    }
+}
@@ -0,0 +1,214 @@
+package study.datajpa.writebehind;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.cache.DataChangeListener;
+import study.datajpa.cache.DataChangeTracker;
+import study.datajpa.shard.ShardContext;
+import study.datajpa.stat.MemberStatDelta;
+import study.datajpa.stat.MemberStatService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*  Member.age 쓰기 지연(write-behind) 버퍼 - datajpa.write-behind.enabled=true 일 때만 버퍼링한다.
+
+    - 병합: 같은 회원에 대한 변경은 메모리에서 하나로 합쳐진다. (마지막 값 우선, lastModifiedDate 는 마지막 변경 시각)
+    - 반영: flush-interval 마다, 또는 대기 건수가 max-pending 에 도달하면 한 트랜잭션에서 JDBC 배치 update 한 번으로 반영한다.
+    - 상한: 반영이 밀리거나 계속 실패해서 대기 건수가 capacity 에 닿으면, 새 회원의 변경은 호출한 스레드가 먼저 flush 한다.
+      (배압 - flush 가 실패하면 updateAge 도 예외로 실패하고 그 변경은 버퍼에 쌓이지 않는다)
+    - 종료: 애플리케이션 종료 시(@PreDestroy) 남은 변경을 모두 반영한다.
+    - 샤딩: updateAge 를 호출한 스레드의 샤드(ShardContext)를 변경마다 기억해 두고, 반영할 때 샤드별로 나눠서 그 샤드에 쓴다.
+      (반영은 스케줄러 스레드에서 하므로 호출한 요청의 샤드를 그대로 쓸 수 없다. 회원 id 는 샤드 간에 겹치지 않는다)
+
+    보장 범위
+    - 내구성: updateAge 가 반환되어도 DB에 반영된 것이 아니다. 프로세스가 비정상 종료되면 최대 flush-interval 동안의 변경이 유실된다.
+    - 순서: 같은 회원에 대해서는 마지막 updateAge 값이 반영된다. 회원 간 반영 순서는 보장하지 않는다.
+    - 버퍼링 중인 필드(age)는 이 버퍼로만 수정해야 한다. JPA 변경 감지로 같은 필드를 수정하면 나중에 반영되는 쪽이 이긴다.
+    - 배치 update 는 엔티티 리스너를 거치지 않으므로 감사(AuditingEntityListener) 대신 lastModifiedDate 를 직접 쓰고,
+      집계 테이블은 반영 직전의 나이를 한 번에 읽어 증분 보정한다. */
+@Slf4j
+@Component
+public class MemberWriteBehindBuffer {
+
+    private static final int IN_CHUNK = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberStatService memberStatService;
+    private final DataChangeTracker dataChangeTracker;
+
+    private final Map<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    @Value("${datajpa.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${datajpa.write-behind.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${datajpa.write-behind.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${datajpa.write-behind.capacity:50000}")
+    private int capacity;
+
+    public MemberWriteBehindBuffer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   MemberStatService memberStatService, DataChangeTracker dataChangeTracker) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.memberStatService = memberStatService;
+        this.dataChangeTracker = dataChangeTracker;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void drain() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        int flushed = flush();
+        log.info("write-behind drained {} pending member updates on shutdown", flushed);
+    }
+
+    public void updateAge(Long memberId, int age) {
+        PendingUpdate update = new PendingUpdate(memberId, age, LocalDateTime.now(), ShardContext.current());
+        if (!enabled) {
+            write(List.of(update)); // 버퍼링을 켜지 않았으면 바로 반영 (write-through)
+            return;
+        }
+        if (pending.size() >= capacity && !pending.containsKey(memberId)) {
+            flush();
+        }
+        pending.put(memberId, update);
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    // 아직 DB에 반영되지 않은 나이 - 자기가 쓴 값을 바로 읽어야 하는 곳에서 사용
+    public Optional<Integer> findPendingAge(Long memberId) {
+        PendingUpdate update = pending.get(memberId);
+        return update == null ? Optional.empty() : Optional.of(update.age());
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public synchronized int flush() {
+        flushRequested.set(false);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<PendingUpdate> batch = new ArrayList<>(pending.size());
+        for (Long memberId : new ArrayList<>(pending.keySet())) {
+            PendingUpdate update = pending.remove(memberId);
+            if (update != null) {
+                batch.add(update);
+            }
+        }
+        // 샤드별로 나눠서 반영한다. (샤딩을 켜지 않았으면 shard 가 모두 null 이라 한 번)
+        Map<String, List<PendingUpdate>> byShard = new LinkedHashMap<>();
+        for (PendingUpdate update : batch) {
+            byShard.computeIfAbsent(update.shard(), shard -> new ArrayList<>()).add(update);
+        }
+        List<List<PendingUpdate>> remaining = new ArrayList<>(byShard.values());
+        try {
+            while (!remaining.isEmpty()) {
+                List<PendingUpdate> shardBatch = remaining.get(0);
+                ShardContext.callWith(shardBatch.get(0).shard(), () -> {
+                    write(shardBatch);
+                    return null;
+                });
+                remaining.remove(0);
+            }
+        } catch (RuntimeException e) {
+            // 반영에 실패하면 그 사이 들어온 더 새로운 값을 덮어쓰지 않도록 putIfAbsent 로 되돌린다. (반영하지 못한 샤드만)
+            remaining.forEach(updates -> updates.forEach(update -> pending.putIfAbsent(update.memberId(), update)));
+            throw e;
+        }
+        return batch.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            int flushed = flush();
+            if (flushed > 0) {
+                log.debug("write-behind flushed {} member updates", flushed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("write-behind flush failed, will retry", e);
+        }
+    }
+
+    private void write(List<PendingUpdate> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Before> before = loadBefore(batch);
+            jdbcTemplate.batchUpdate("update member set age = ?, last_modified_date = ? where member_id = ?",
+                    batch, batch.size(), (ps, update) -> {
+                        ps.setInt(1, update.age());
+                        ps.setTimestamp(2, Timestamp.valueOf(update.modifiedAt()));
+                        ps.setLong(3, update.memberId());
+                    });
+            // 회원별이 아니라 (나이, 팀) 버킷별로 합쳐서 집계 테이블마다 배치 한 번으로 반영한다.
+            MemberStatDelta delta = new MemberStatDelta();
+            for (PendingUpdate update : batch) {
+                Before old = before.get(update.memberId());
+                if (old != null && old.age() != update.age()) {
+                    delta.removed(old.age(), old.teamId());
+                    delta.added(update.age(), old.teamId());
+                }
+            }
+            memberStatService.apply(delta);
+            DataChangeListener.changedAfterCommit(dataChangeTracker);
+        });
+    }
+
+    private Map<Long, Before> loadBefore(List<PendingUpdate> batch) {
+        Map<Long, Before> result = new HashMap<>();
+        for (int from = 0; from < batch.size(); from += IN_CHUNK) {
+            List<PendingUpdate> chunk = batch.subList(from, Math.min(from + IN_CHUNK, batch.size()));
+            String in = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("select member_id, age, team_id from member where member_id in (" + in + ")",
+                    rs -> {
+                        long teamId = rs.getLong(3);
+                        result.put(rs.getLong(1), new Before(rs.getInt(2), rs.wasNull() ? null : teamId));
+                    },
+                    chunk.stream().map(PendingUpdate::memberId).toArray());
+        }
+        return result;
+    }
+
+    private record Before(int age, Long teamId) {
+    }
+
+    private record PendingUpdate(Long memberId, int age, LocalDateTime modifiedAt, String shard) {
+    }
+}
@@ -0,0 +1,78 @@
+-- 기준 스키마 - 지금까지 ddl-auto: create 로 만들던 스키마와 같다.
+-- 이후 엔티티를 바꾸면 V2__... 를 추가한다. (ddl-auto: validate 가 엔티티와 어긋나면 기동에 실패한다)
+
+create sequence item_seq start with 1 increment by 50;
+create sequence member_seq start with 1 increment by 50;
+create sequence team_seq start with 1 increment by 50;
+
+create table team (
+    team_id      bigint       not null,
+    name         varchar(255),
+    member_count integer      not null,
+    primary key (team_id)
+);
+
+create table member (
+    member_id          bigint       not null,
+    username           varchar(255),
+    age                integer      not null,
+    team_id            bigint,
+    created_by         varchar(255),
+    last_modified_by   varchar(255),
+    created_date       timestamp(6),
+    last_modified_date timestamp(6),
+    work_status        varchar(16) check (work_status in ('PENDING', 'CLAIMED', 'DONE', 'FAILED')),
+    claim_owner        varchar(255),
+    claimed_at         timestamp(6),
+    primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team (team_id)
+);
+
+create index idx_member_username on member (username);
+create index idx_member_age on member (age);
+create index idx_member_last_modified on member (last_modified_date);
+create index idx_member_work_status on member (work_status, member_id);
+
+create table item (
+    id bigint not null,
+    primary key (id)
+);
+
+create table member_age_stat (
+    age          integer not null,
+    member_count bigint  not null,
+    primary key (age)
+);
+
+create table team_stat (
+    team_id      bigint  not null,
+    member_count bigint  not null,
+    min_age      integer,
+    max_age      integer,
+    age_sum      bigint  not null,
+    primary key (team_id)
+);
+
+create table outbox_message (
+    id             bigint generated by default as identity,
+    event_count    integer not null,
+    payload        clob,
+    created_date   timestamp(6),
+    delivered_date timestamp(6),
+    primary key (id)
+);
+
+create index idx_outbox_delivered on outbox_message (delivered_date, id);
+
+create table member_archive (
+    member_id          bigint       not null,
+    username           varchar(255),
+    age                integer      not null,
+    team_id            bigint,
+    created_by         varchar(255),
+    last_modified_by   varchar(255),
+    created_date       timestamp(6),
+    last_modified_date timestamp(6),
+    archived_date      timestamp(6),
+    primary key (member_id)
+);
@@ -0,0 +1,2 @@
+-- team.member_count 는 엔티티 insert 에서 빠지고 회원 flush 이후 증감으로만 바뀐다.
+alter table team alter column member_count set default 0;
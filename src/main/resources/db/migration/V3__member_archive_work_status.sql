@@ -0,0 +1,4 @@
+-- 보관할 때 작업 큐 상태도 같이 옮긴다. (MemberArchiver.COLUMNS)
+alter table member_archive add column work_status varchar(16) check (work_status in ('PENDING', 'CLAIMED', 'DONE', 'FAILED'));
+alter table member_archive add column claim_owner varchar(255);
+alter table member_archive add column claimed_at timestamp(6);
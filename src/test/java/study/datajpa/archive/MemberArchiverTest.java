@@ -0,0 +1,66 @@
+package study.datajpa.archive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entitiy.Member;
+import study.datajpa.entitiy.MemberWorkStatus;
+import study.datajpa.entitiy.Team;
+import study.datajpa.queue.MemberWorkQueue;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class MemberArchiverTest {
+
+    @Autowired
+    MemberArchiver memberArchiver;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberWorkQueue memberWorkQueue;
+
+    @Test
+    public void archiveAndRestore() {
+        // given
+        Team team = teamRepository.save(new Team("archiveTeam"));
+        Member member = memberRepository.save(new Member("archived", 30, team));
+        memberWorkQueue.enqueue(new long[]{member.getId()});
+
+        // when - 보관하면 member 테이블에서는 사라지고, read-through 조회로만 보인다.
+        assertThat(memberArchiver.archive(member.getId())).isTrue();
+
+        // then
+        assertThat(memberRepository.findById(member.getId())).isEmpty();
+        MemberDto archived = memberRepository.findDtoByIdIncludingArchived(member.getId()).get();
+        assertThat(archived.getUsername()).isEqualTo("archived");
+        assertThat(archived.getTeamName()).isEqualTo("archiveTeam");
+        assertThat(teamRepository.findById(team.getId()).get().getMemberCount()).isZero();
+
+        // when - 복원
+        assertThat(memberArchiver.restore(member.getId())).isTrue();
+
+        // then
+        Member restored = memberRepository.findById(member.getId()).get();
+        assertThat(restored.getAge()).isEqualTo(30);
+        assertThat(restored.getTeam().getId()).isEqualTo(team.getId());
+        assertThat(restored.getWorkStatus()).isEqualTo(MemberWorkStatus.PENDING); // 작업 큐 상태도 같이 보관/복원
+        assertThat(teamRepository.findById(team.getId()).get().getMemberCount()).isEqualTo(1);
+        assertThat(memberArchiver.restore(member.getId())).isFalse();
+    }
+
+    @Test
+    public void archiveNothingBeforeCutoff() {
+        assertThat(memberArchiver.archiveModifiedBefore(LocalDateTime.of(2000, 1, 1, 0, 0))).isZero();
+    }
+}
@@ -0,0 +1,62 @@
+package study.datajpa.bootstrap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entitiy.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberStatRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class SnapshotLoaderTest {
+
+    @Autowired
+    SnapshotLoader snapshotLoader;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberStatRepository memberStatRepository;
+
+    @Test
+    public void restoredOnStart() {
+        // 기동할 때 db/snapshot/member.csv 가 적재된다.
+        Member first = memberRepository.findById(1L).get();
+        assertThat(first.getUsername()).isEqualTo("user0");
+        assertThat(first.getLastModifiedDate()).isNotNull();
+        assertThat(memberStatRepository.countByAge(99)).isGreaterThanOrEqualTo(1);
+
+        // 시퀀스는 스냅샷 id 다음부터 발급된다.
+        Member saved = memberRepository.save(new Member("afterSnapshot", 10));
+        assertThat(saved.getId()).isGreaterThan(100);
+    }
+
+    @Test
+    public void notRestoredOverExistingData() {
+        // 이미 데이터가 있으면 다시 기동해도 스냅샷을 또 넣지 않는다.
+        long before = memberRepository.count();
+
+        snapshotLoader.restoreOnStart();
+
+        assertThat(memberRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    public void writeSnapshot(@TempDir Path directory) throws Exception {
+        snapshotLoader.snapshot(directory);
+
+        Path members = directory.resolve("member.csv");
+        assertThat(members).exists();
+        assertThat(Files.readAllLines(members).get(0)).contains("MEMBER_ID").contains("USERNAME");
+        assertThat(Files.readAllLines(members)).hasSizeGreaterThan(100);
+    }
+}
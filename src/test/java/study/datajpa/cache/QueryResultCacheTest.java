@@ -0,0 +1,117 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entitiy.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "datajpa.query-cache.enabled=true")
+class QueryResultCacheTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    QueryResultCache queryResultCache;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void cacheUntilChanged() {
+        // given
+        List<String> first = memberRepository.findUsernameList();
+
+        // when - 변경이 없으면 같은 스냅샷을 돌려준다.
+        List<String> second = memberRepository.findUsernameList();
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThatThrownBy(() -> second.add("x")).isInstanceOf(UnsupportedOperationException.class);
+
+        // when - 저장(엔티티 리스너)
+        memberRepository.save(new Member("cachedMember", 10));
+
+        // then
+        List<String> third = memberRepository.findUsernameList();
+        assertThat(third).isNotSameAs(first).contains("cachedMember");
+
+        // when - 벌크 수정(@Modifying)
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(1000));
+
+        // then
+        assertThat(memberRepository.findUsernameList()).isNotSameAs(third);
+    }
+
+    @Test
+    public void bypassWhenSessionIsDirty() {
+        // given
+        Member member = memberRepository.save(new Member("beforeDirty", 10));
+        assertThat(memberRepository.findUsernameList()).contains("beforeDirty");
+
+        // when - flush 전의 변경 감지도 같은 트랜잭션의 조회에 보여야 한다.
+        List<String> inTransaction = transactionTemplate.execute(status -> {
+            memberRepository.findById(member.getId()).get().setUsername("afterDirty");
+            List<String> usernames = memberRepository.findUsernameList();
+            status.setRollbackOnly();
+            return usernames;
+        });
+
+        // then
+        assertThat(inTransaction).contains("afterDirty").doesNotContain("beforeDirty");
+        assertThat(memberRepository.findUsernameList()).contains("beforeDirty");
+        memberRepository.deleteById(member.getId());
+    }
+
+    @Test
+    public void keepCollectionType() throws Throwable {
+        var method = Object.class.getMethod("hashCode");
+
+        // Set 을 돌려주는 메서드는 캐시 적중 때도 Set 을 받아야 한다.
+        Object cached = queryResultCache.get(method, new Object[]{"set"}, 60, () -> new TreeSet<>(Set.of("b", "a")));
+        assertThat(cached).isInstanceOf(SortedSet.class);
+        assertThat((SortedSet<?>) cached).containsExactly("a", "b");
+        assertThat(queryResultCache.get(method, new Object[]{"set"}, 60, () -> fail("cached"))).isSameAs(cached);
+
+        assertThatThrownBy(() -> queryResultCache.get(method, new Object[]{"queue"}, 60, () -> new ArrayDeque<>(List.of("a"))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void singleFlight() throws Throwable {
+        // 같은 키를 동시에 놓치면 한 번만 조회한다.
+        AtomicInteger loads = new AtomicInteger();
+        QueryResultCache.QueryLoader loader = () -> {
+            loads.incrementAndGet();
+            Thread.sleep(200);
+            return List.of("value");
+        };
+        var method = Object.class.getMethod("toString");
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[8];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    queryResultCache.get(method, new Object[0], 60, loader);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        CompletableFuture.allOf(futures).join();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+}
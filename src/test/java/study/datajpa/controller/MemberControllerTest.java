@@ -0,0 +1,117 @@
+package study.datajpa.controller;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.archive.MemberArchiver;
+import study.datajpa.entitiy.Member;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberArchiver memberArchiver;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Test
+    public void conditionalGet() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("etagMember", 10));
+        em.flush();
+
+        // when
+        String etag = mockMvc.perform(get("/members/{id}", member.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // then
+        assertThat(etag).isNotNull();
+        mockMvc.perform(get("/members/{id}", member.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/members2/{id}", member.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // 수정하면 ETag 가 바뀐다.
+        Thread.sleep(10);
+        member.setUsername("etagMember2");
+        em.flush();
+        mockMvc.perform(get("/members/{id}", member.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void findArchivedMember() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("archivedMember", 10));
+        em.flush();
+        memberArchiver.archive(member.getId());
+
+        // then - 도메인 클래스 컨버터를 쓰던 /members2 도 보관 테이블까지 읽는다.
+        mockMvc.perform(get("/members/{id}", member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("archivedMember"));
+        mockMvc.perform(get("/members2/{id}", member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("archivedMember"));
+        mockMvc.perform(get("/members2/{id}", -1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void conditionalGetList() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/members").param("page", "0"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String etag = response.getHeader(HttpHeaders.ETAG);
+
+        // 삭제/보관은 max(lastModifiedDate) 를 바꾸지 않으므로 목록은 ETag 로만 판단한다.
+        assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+
+        mockMvc.perform(get("/members").param("page", "0").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/members").param("page", "1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        // 같은 URL 이라도 응답 형식(JSON/CBOR)이 다르면 다른 표현이다.
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+        mockMvc.perform(get("/members").param("page", "0")
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        // 회원을 지우면(max(lastModifiedDate) 는 그대로일 수 있어도) 목록 버전이 바뀐다.
+        Member member = memberRepository.save(new Member("listEtagMember", 10));
+        em.flush();
+        String before = mockMvc.perform(get("/members").param("page", "0"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        memberRepository.delete(member);
+        em.flush();
+        mockMvc.perform(get("/members").param("page", "0").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk());
+    }
+
+}
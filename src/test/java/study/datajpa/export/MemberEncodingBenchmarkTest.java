@@ -0,0 +1,65 @@
+package study.datajpa.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import study.datajpa.dto.MemberDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// JSON 과 CBOR 의 전송 바이트 수, 직렬화 CPU 시간 비교 (스프링 컨텍스트 없이 실행)
+class MemberEncodingBenchmarkTest {
+
+    private static final int MEMBERS = 100_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void jsonVersusCbor() throws IOException {
+        List<MemberDto> members = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(new MemberDto((long) i, "user" + i, "team" + (i % 100)));
+        }
+
+        Result json = measure(new JsonFactory(), members);
+        Result cbor = measure(new CBORFactory(), members);
+
+        System.out.printf("json: %,d bytes, %d ms cpu%n", json.bytes, json.cpuMillis);
+        System.out.printf("cbor: %,d bytes, %d ms cpu (%.1f%% of json bytes)%n",
+                cbor.bytes, cbor.cpuMillis, 100.0 * cbor.bytes / json.bytes);
+
+        assertThat(cbor.bytes).isLessThan(json.bytes);
+    }
+
+    private Result measure(JsonFactory factory, List<MemberDto> members) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long bytes = 0;
+        long cpu = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+            long start = threads.getCurrentThreadCpuTime();
+            try (JsonGenerator generator = factory.createGenerator(out)) {
+                generator.writeStartArray();
+                for (MemberDto member : members) {
+                    MemberExporter.writeMember(generator, member);
+                }
+                generator.writeEndArray();
+            }
+            if (round > 0) { // 첫 회는 워밍업
+                cpu += threads.getCurrentThreadCpuTime() - start;
+            }
+            bytes = out.size();
+        }
+        return new Result(bytes, cpu / ROUNDS / 1_000_000);
+    }
+
+    private record Result(long bytes, long cpuMillis) {
+    }
+}
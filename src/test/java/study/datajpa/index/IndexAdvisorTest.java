@@ -0,0 +1,61 @@
+package study.datajpa.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entitiy.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class IndexAdvisorTest {
+
+    @Autowired
+    IndexAdvisor indexAdvisor;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void usernameAndAgeAreIndexed() {
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.findListByUsername("member1");
+
+        List<IndexAdvice> advices = indexAdvisor.analyze();
+        advices.forEach(advice -> System.out.println("advice = " + advice));
+
+        assertThat(advices)
+                .filteredOn(advice -> advice.type() == IndexAdvice.Type.MISSING_INDEX)
+                .extracting(IndexAdvice::column)
+                .doesNotContain("username", "age");
+        assertThat(advices)
+                .filteredOn(advice -> advice.type() == IndexAdvice.Type.UNUSED_INDEX)
+                .extracting(IndexAdvice::detail)
+                .doesNotContain("IDX_MEMBER_USERNAME");
+    }
+
+    @Test
+    public void fullScanOnUnindexedPredicate() {
+        // created_by 에는 인덱스가 없다.
+        jdbcTemplate.queryForList("select member_id from member where created_by = ?", Long.class, "nobody");
+
+        List<IndexAdvice> advices = indexAdvisor.analyze();
+
+        assertThat(advices)
+                .filteredOn(advice -> advice.type() == IndexAdvice.Type.FULL_SCAN)
+                .anySatisfy(advice -> {
+                    assertThat(advice.table()).isEqualTo("member");
+                    assertThat(advice.detail()).contains("where created_by = ?");
+                });
+    }
+
+}
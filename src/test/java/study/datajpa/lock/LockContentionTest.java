@@ -0,0 +1,138 @@
+package study.datajpa.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entitiy.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/*  잠금 경합 재현 하네스
+    holder 스레드가 트랜잭션 안에서 findLockByUsername 으로 행을 잠그고 holdMs 동안 잡고 있는 동안
+    다른 스레드가 같은 행을 잠그거나 bulkAgePlus 로 수정한다. */
+@SpringBootTest(properties = "datajpa.lock.slow-threshold-ms=100")
+class LockContentionTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    LockDiagnostics lockDiagnostics;
+
+    @Autowired
+    LockProperties lockProperties;
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    LockProperties.MethodPolicy original;
+
+    @BeforeEach
+    public void before() {
+        lockDiagnostics.clear();
+        original = lockProperties.getMethods().get("findLockByUsername");
+    }
+
+    @AfterEach
+    public void after() {
+        executor.shutdownNow();
+        if (original != null) {
+            lockProperties.getMethods().put("findLockByUsername", original);
+        } else {
+            lockProperties.getMethods().remove("findLockByUsername");
+        }
+    }
+
+    @Test
+    public void waitIsRecordedWithBlockingChain() throws Exception {
+        // given
+        memberRepository.save(new Member("lockWait", 10));
+        lockProperties.getMethods().put("findLockByUsername", new LockProperties.MethodPolicy(LockWaitMode.WAIT, 5000L));
+
+        // when
+        CountDownLatch locked = new CountDownLatch(1);
+        Future<?> holder = holdLock("lockWait", 500, locked);
+        locked.await();
+        Future<List<Member>> waiter = executor.submit(() ->
+                transactionTemplate.execute(status -> memberRepository.findLockByUsername("lockWait")));
+
+        // then
+        assertThat(waiter.get(10, TimeUnit.SECONDS)).hasSize(1);
+        holder.get();
+
+        LockDiagnostics.LockStats stat = lockDiagnostics.stats().stream()
+                .filter(s -> s.getMethod().equals("MemberRepository.findLockByUsername"))
+                .findFirst().orElseThrow();
+        assertThat(stat.getCount()).isEqualTo(2);
+        assertThat(stat.getMaxCallMs()).isGreaterThanOrEqualTo(300);
+        assertThat(lockDiagnostics.reports()).isNotEmpty();
+        assertThat(lockDiagnostics.reports().get(0).blockingChains()).isNotEmpty();
+    }
+
+    @Test
+    public void noWaitFailsFast() throws Exception {
+        // given
+        memberRepository.save(new Member("lockNoWait", 10));
+        lockProperties.getMethods().put("findLockByUsername", new LockProperties.MethodPolicy(LockWaitMode.NOWAIT, null));
+
+        // when
+        CountDownLatch locked = new CountDownLatch(1);
+        Future<?> holder = holdLock("lockNoWait", 1000, locked);
+        locked.await();
+        long start = System.nanoTime();
+
+        // then
+        assertThatThrownBy(() -> transactionTemplate.execute(status -> memberRepository.findLockByUsername("lockNoWait")))
+                .isInstanceOf(PessimisticLockingFailureException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        holder.get();
+
+        assertThat(lockDiagnostics.stats()).anySatisfy(s -> assertThat(s.getTimeouts()).isEqualTo(1));
+    }
+
+    @Test
+    public void skipLockedReturnsUnlockedRowsOnly() throws Exception {
+        // given
+        memberRepository.save(new Member("lockSkip", 10));
+        memberRepository.save(new Member("lockSkip", 20));
+        lockProperties.getMethods().put("findLockByUsername", new LockProperties.MethodPolicy(LockWaitMode.SKIP_LOCKED, null));
+
+        // when - holder 가 두 행을 모두 잠그고 있다.
+        CountDownLatch locked = new CountDownLatch(1);
+        Future<?> holder = holdLock("lockSkip", 500, locked);
+        locked.await();
+
+        // then
+        assertThat(transactionTemplate.execute(status -> memberRepository.findLockByUsername("lockSkip"))).isEmpty();
+        holder.get();
+        assertThat(transactionTemplate.execute(status -> memberRepository.findLockByUsername("lockSkip"))).hasSize(2);
+    }
+
+    private Future<?> holdLock(String username, long holdMs, CountDownLatch locked) {
+        return executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            LockProperties.MethodPolicy policy = lockProperties.getMethods().remove("findLockByUsername");
+            try {
+                memberRepository.findLockByUsername(username);
+            } finally {
+                if (policy != null) {
+                    lockProperties.getMethods().put("findLockByUsername", policy);
+                }
+            }
+            locked.countDown();
+            try {
+                Thread.sleep(holdMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+    }
+}
@@ -0,0 +1,123 @@
+package study.datajpa.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entitiy.Member;
+import study.datajpa.entitiy.OutboxMessage;
+import study.datajpa.entitiy.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.OutboxMessageRepository;
+import study.datajpa.repository.TeamIdRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.Comparator;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 아웃박스는 커밋 시점에 기록되므로 @Transactional 없이 TransactionTemplate 으로 커밋까지 진행한다.
+@SpringBootTest(properties = "datajpa.outbox.relay-interval-ms=0")
+class OutboxRelayTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    @Autowired
+    OutboxSink outboxSink;
+
+    @Autowired
+    TeamIdRepository teamIdRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void oneMessagePerTransaction() {
+        // given
+        outboxRelay.relay();
+        InMemoryOutboxSink sink = (InMemoryOutboxSink) outboxSink;
+        sink.clear();
+        long before = outboxMessageRepository.count();
+
+        // when - 트랜잭션 하나에서 팀 변경 2건 + 벌크 수정 1건
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = teamRepository.save(new Team("outboxTeamA"));
+            Team teamB = teamRepository.save(new Team("outboxTeamB"));
+            memberRepository.save(new Member("outbox1", 3000, teamA));
+            memberRepository.save(new Member("outbox2", 3001, teamB));
+            memberRepository.bulkAgePlus(3000);
+        });
+
+        // then
+        assertThat(outboxMessageRepository.count()).isEqualTo(before + 1);
+        assertThat(outboxRelay.relay()).isEqualTo(1);
+        assertThat(sink.getDelivered()).hasSize(1);
+
+        OutboxMessage message = sink.getDelivered().get(0);
+        assertThat(message.getEventCount()).isEqualTo(3);
+        assertThat(message.getPayload()).contains("MemberTeamChanged", "MemberAgesBumped");
+        assertThat(outboxMessageRepository.findById(message.getId()).get().getDeliveredDate()).isNotNull();
+
+        // 다시 돌려도 중복 전달되지 않는다.
+        assertThat(outboxRelay.relay()).isZero();
+    }
+
+    @Test
+    public void requiresNewKeepsEventsApart() {
+        // given
+        // 두 트랜잭션이 같은 집계 행을 잠그지 않도록 팀, 나이를 나눈다.
+        Team outerTeam = teamRepository.save(new Team("outboxOuterTeam"));
+        Team innerTeam = teamRepository.save(new Team("outboxInnerTeam"));
+        long before = outboxMessageRepository.count();
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // when - 바깥 트랜잭션의 이벤트가 남아 있는 상태에서 안쪽(REQUIRES_NEW) 트랜잭션이 커밋하고, 바깥은 롤백
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.saveAndFlush(new Member("outboxOuter", 4001, outerTeam));
+            requiresNew.executeWithoutResult(inner -> memberRepository.save(new Member("outboxInner", 4002, innerTeam)));
+            status.setRollbackOnly();
+        });
+
+        // then - 안쪽 트랜잭션의 이벤트만 기록된다.
+        assertThat(outboxMessageRepository.count()).isEqualTo(before + 1);
+        OutboxMessage message = outboxMessageRepository.findAll().stream()
+                .max(Comparator.comparing(OutboxMessage::getId)).get();
+        assertThat(message.getEventCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void deleteTeamsByIdRecordsTeamChanges() {
+        // given
+        Team team = teamRepository.save(new Team("outboxDeletedTeam"));
+        Member member1 = memberRepository.save(new Member("outboxDeleted1", 4101, team));
+        Member member2 = memberRepository.save(new Member("outboxDeleted2", 4102, team));
+        long before = outboxMessageRepository.count();
+
+        // when - 소속 회원의 team_id 를 JDBC 로 비우고 팀을 지운다.
+        transactionTemplate.executeWithoutResult(status -> teamIdRepository.deleteByIds(new long[]{team.getId()}));
+
+        // then - 바뀐 회원마다 MemberTeamChanged 가 같은 트랜잭션의 메시지로 기록된다.
+        assertThat(outboxMessageRepository.count()).isEqualTo(before + 1);
+        OutboxMessage message = outboxMessageRepository.findAll().stream()
+                .max(Comparator.comparing(OutboxMessage::getId)).get();
+        assertThat(message.getEventCount()).isEqualTo(2);
+        assertThat(message.getPayload()).contains("MemberTeamChanged",
+                "\"aggregateId\":" + member1.getId(), "\"aggregateId\":" + member2.getId());
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.queue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entitiy.Member;
+import study.datajpa.entitiy.MemberWorkStatus;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "datajpa.work-queue.workers=4",
+        "datajpa.work-queue.batch-size=5",
+        "datajpa.work-queue.reclaim-interval-seconds=0"
+})
+class MemberWorkConsumerTest {
+
+    @Autowired
+    MemberWorkConsumer consumer;
+
+    @Autowired
+    MemberWorkQueue queue;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void processEachMemberOnce() throws Exception {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            members.add(new Member("work" + i, i));
+        }
+        long[] ids = memberRepository.saveAll(members).stream().mapToLong(Member::getId).toArray();
+        assertThat(queue.enqueue(ids)).isEqualTo(50);
+
+        // when - 여러 작업자가 동시에 claim 해도 같은 회원을 두 번 처리하지 않는다.
+        Set<Long> handled = ConcurrentHashMap.newKeySet();
+        AtomicInteger calls = new AtomicInteger();
+        int completed = consumer.process(memberId -> {
+            calls.incrementAndGet();
+            handled.add(memberId);
+            if (memberId == ids[0]) {
+                throw new IllegalStateException("fail one");
+            }
+        });
+
+        // then
+        assertThat(calls.get()).isEqualTo(50);
+        assertThat(handled).hasSize(50);
+        assertThat(completed).isEqualTo(49);
+        assertThat(memberRepository.findById(ids[1]).get().getWorkStatus()).isEqualTo(MemberWorkStatus.DONE);
+        assertThat(memberRepository.findById(ids[0]).get().getWorkStatus()).isEqualTo(MemberWorkStatus.FAILED);
+        assertThat(queue.countByStatus("PENDING")).isZero();
+    }
+
+    @Test
+    public void reclaimStalledClaims() {
+        // given - claim 한 뒤 작업자가 죽었다.
+        Member member = memberRepository.save(new Member("stalled", 10));
+        queue.enqueue(new long[]{member.getId()});
+        assertThat(queue.claim(1, "dead-worker")).containsExactly(member.getId());
+
+        // when
+        int reclaimed = queue.reclaimStalled(Duration.ofSeconds(-1));
+
+        // then - 다시 claim 할 수 있고, 늦게 끝난 작업자의 완료 처리는 무시된다.
+        assertThat(reclaimed).isEqualTo(1);
+        assertThat(queue.claim(1, "new-worker")).containsExactly(member.getId());
+        assertThat(queue.complete(new long[]{member.getId()}, "dead-worker")).isZero();
+        assertThat(queue.complete(new long[]{member.getId()}, "new-worker")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entitiy.Member;
+import study.datajpa.entitiy.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberIdRepositoryTest {
+
+    @Autowired
+    MemberIdRepository memberIdRepository;
+
+    @Autowired
+    TeamIdRepository teamIdRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberStatRepository memberStatRepository;
+
+    @Test
+    public void idOperations() {
+        // given
+        long ageStatBefore = memberStatRepository.countByAge(1234);
+        Team team = teamRepository.save(new Team("idTeam"));
+        Member m1 = memberRepository.save(new Member("id1", 1234, team));
+        Member m2 = memberRepository.save(new Member("id2", 1234, team));
+        Member m3 = memberRepository.save(new Member("id3", 1234, team));
+        memberRepository.flush();
+
+        // when
+        long[] ids = memberIdRepository.findIdsByAge(1234);
+
+        // then
+        assertThat(ids).containsExactly(m1.getId(), m2.getId(), m3.getId());
+        assertThat(teamIdRepository.findMemberIds(team.getId())).containsExactly(ids);
+
+        long[] count = new long[1];
+        memberIdRepository.streamIds(id -> count[0]++);
+        assertThat(count[0]).isEqualTo(memberRepository.count());
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        memberIdRepository.findAllByIdIn(ids, 2, members -> chunkSizes.add(members.size()));
+        assertThat(chunkSizes).containsExactly(2, 1);
+
+        // when - 삭제하면 팀 회원 수도 맞춰진다.
+        assertThat(memberIdRepository.deleteByIds(ids)).isEqualTo(3);
+
+        // then
+        assertThat(memberIdRepository.findIdsByAge(1234)).isEmpty();
+        assertThat(teamRepository.findById(team.getId()).get().getMemberCount()).isZero();
+        assertThat(memberStatRepository.countByAge(1234)).isEqualTo(ageStatBefore); // 재계산 없이 (나이, 팀)별 증감으로 반영
+        assertThat(memberStatRepository.findTeamStat(team.getId())).isEmpty();
+
+        assertThat(teamIdRepository.deleteByIds(new long[]{team.getId()})).isEqualTo(1);
+        assertThat(teamRepository.findById(team.getId())).isEmpty();
+    }
+}
@@ -2,18 +2,22 @@ package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entitiy.Member;
 import study.datajpa.entitiy.Team;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -308,6 +312,85 @@ class MemberRepositoryTest {
         em.flush();
     }
 
+    @Test
+    public void teamMemberCount() {
+        // given
+        Team teamA = new Team("AAATeam");
+        Team teamB = new Team("BBBTeam");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+
+        Member member1 = memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+
+        // when
+        Member findMember = memberRepository.findById(member1.getId()).get();
+        Team findTeamB = teamRepository.findById(teamB.getId()).get();
+        findMember.changeTeam(findTeamB);
+        em.flush();
+
+        // then - members 컬렉션은 초기화되지 않는다.
+        assertThat(Hibernate.isInitialized(findTeamB.getMembers())).isFalse();
+        assertThat(findTeamB.getMemberCount()).isEqualTo(1);
+        assertThat(findMember.getTeam().getMemberCount()).isEqualTo(1);
+
+        memberRepository.delete(findMember);
+        em.flush();
+        em.clear();
+
+        assertThat(teamRepository.findById(teamA.getId()).get().getMemberCount()).isEqualTo(1);
+        assertThat(teamRepository.findById(teamB.getId()).get().getMemberCount()).isEqualTo(0);
+
+        teamRepository.addMemberCount(teamA.getId(), 5);
+        teamRepository.syncMemberCount();
+        assertThat(teamRepository.findById(teamA.getId()).get().getMemberCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void searchByCondition() {
+        // given
+        Team teamA = teamRepository.save(new Team("searchTeamA"));
+        memberRepository.save(new Member("search_1", 10, teamA));
+        memberRepository.save(new Member("search_2", 20, teamA));
+        memberRepository.save(new Member("search_3", 30, null));
+        memberRepository.save(new Member("search_4", 30, null)); // search_3 과 정렬 값(age)이 같다.
+        memberRepository.save(new Member("searchX", 40, null));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("search_");
+        condition.setAgeGoe(15);
+        Sort ageDesc = Sort.by(Sort.Direction.DESC, "age");
+
+        // when - 한 건씩 offset 페이징, 키셋 페이징
+        List<String> offsetPages = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            Slice<MemberDto> slice = memberRepository.search(condition, PageRequest.of(page, 1, ageDesc));
+            slice.getContent().forEach(dto -> offsetPages.add(dto.getUsername()));
+            assertThat(slice.hasNext()).isEqualTo(page < 2);
+        }
+        List<String> keysetPages = new ArrayList<>();
+        Long lastId = null;
+        while (true) {
+            Slice<MemberDto> slice = memberRepository.searchAfter(condition, lastId, ageDesc, 1);
+            slice.getContent().forEach(dto -> keysetPages.add(dto.getUsername()));
+            if (!slice.hasNext()) {
+                break;
+            }
+            lastId = slice.getContent().get(0).getId();
+        }
+
+        condition.setTeamName("searchTeamA");
+        Slice<MemberDto> byTeam = memberRepository.search(condition, PageRequest.of(0, 10));
+
+        // then - 같은 나이는 id 순서로 이어지고, 페이지 사이에 겹치거나 빠지는 회원이 없다.
+        assertThat(offsetPages).containsExactly("search_3", "search_4", "search_2");
+        assertThat(keysetPages).containsExactly("search_3", "search_4", "search_2");
+        assertThat(byTeam.getContent()).extracting(MemberDto::getUsername).containsExactly("search_2");
+        assertThat(byTeam.hasNext()).isFalse();
+    }
+
     @Test
     public void callCustom() {
         List<Member> result = memberRepository.findMemberCustom();
@@ -0,0 +1,164 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entitiy.Member;
+import study.datajpa.entitiy.Team;
+import study.datajpa.entitiy.TeamStat;
+import study.datajpa.stat.MemberStatService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberStatRepositoryTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberStatRepository memberStatRepository;
+
+    @Autowired
+    MemberStatService memberStatService;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Test
+    public void incrementalAgeAndTeamStat() {
+        // given
+        memberStatService.rebuild();
+        long before = memberStatRepository.countByAge(1000);
+
+        Team team = teamRepository.save(new Team("statTeam"));
+        Member member1 = memberRepository.save(new Member("member1", 1000, team));
+        memberRepository.save(new Member("member2", 1002, team));
+        em.flush();
+        em.clear();
+
+        // then
+        assertThat(memberStatRepository.countByAge(1000)).isEqualTo(before + 1);
+        TeamStat teamStat = memberStatRepository.findTeamStat(team.getId()).get();
+        assertThat(teamStat.getMemberCount()).isEqualTo(2);
+        assertThat(teamStat.getMinAge()).isEqualTo(1000);
+        assertThat(teamStat.getMaxAge()).isEqualTo(1002);
+        assertThat(teamStat.getAvgAge()).isEqualTo(1001);
+
+        // when - 나이 변경, 삭제
+        Member findMember = memberRepository.findById(member1.getId()).get();
+        findMember.setAge(1001);
+        em.flush();
+        em.clear();
+
+        assertThat(memberStatRepository.countByAge(1000)).isEqualTo(before);
+        assertThat(memberStatRepository.findTeamStat(team.getId()).get().getMinAge()).isEqualTo(1001);
+
+        memberRepository.deleteById(member1.getId());
+        em.flush();
+        em.clear();
+
+        teamStat = memberStatRepository.findTeamStat(team.getId()).get();
+        assertThat(teamStat.getMemberCount()).isEqualTo(1);
+        assertThat(teamStat.getMinAge()).isEqualTo(1002);
+    }
+
+    @Test
+    public void bulkAgePlusStat() {
+        // given
+        Team team = teamRepository.save(new Team("statTeam"));
+        memberRepository.save(new Member("member1", 2000, team));
+        memberRepository.save(new Member("member2", 2010, team));
+        em.flush();
+        memberStatService.rebuild();
+
+        // when
+        memberRepository.bulkAgePlus(2005);
+
+        // then
+        assertThat(memberStatRepository.countByAge(2010)).isEqualTo(0);
+        assertThat(memberStatRepository.countByAge(2011)).isEqualTo(1);
+        TeamStat teamStat = memberStatRepository.findTeamStat(team.getId()).get();
+        assertThat(teamStat.getMinAge()).isEqualTo(2000);
+        assertThat(teamStat.getMaxAge()).isEqualTo(2011);
+        assertThat(teamStat.getAgeSum()).isEqualTo(4011);
+        assertThat(memberStatRepository.findAgeSummary().getMaxAge()).isEqualTo(2011);
+    }
+
+    @Test
+    public void removeMinMembersInOneFlush() {
+        // given
+        Team team = teamRepository.save(new Team("statTeam"));
+        Member member10 = memberRepository.save(new Member("member10", 10, team));
+        Member member20 = memberRepository.save(new Member("member20", 20, team));
+        memberRepository.save(new Member("member30", 30, team));
+        memberRepository.save(new Member("member40", 40, team));
+        em.flush();
+
+        // when - 같은 flush 에서 최소 나이 회원 둘을 삭제 (JDBC 배치로 delete 가 함께 실행된다)
+        memberRepository.delete(member10);
+        memberRepository.delete(member20);
+        em.flush();
+        em.clear();
+
+        // then
+        TeamStat teamStat = memberStatRepository.findTeamStat(team.getId()).get();
+        assertThat(teamStat.getMemberCount()).isEqualTo(2);
+        assertThat(teamStat.getMinAge()).isEqualTo(30);
+        assertThat(teamStat.getMaxAge()).isEqualTo(40);
+        assertThat(teamRepository.findById(team.getId()).get().getMemberCount()).isEqualTo(2);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void concurrentFirstMemberOfAge() throws Exception {
+        // given - 아직 집계 행이 없는 나이
+        int age = 3000 + (int) (System.nanoTime() % 1000);
+        long before = memberStatRepository.countByAge(age);
+        CountDownLatch firstFlushed = new CountDownLatch(1);
+
+        // when - 첫 번째 트랜잭션이 집계 행을 만든 채 커밋하지 않고 있는 동안 두 번째 트랜잭션도 같은 나이 회원을 추가
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            Member member = memberRepository.saveAndFlush(new Member("statRace1", age));
+            firstFlushed.countDown();
+            sleep(300);
+            return member.getId();
+        }));
+        firstFlushed.await();
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status ->
+                memberRepository.saveAndFlush(new Member("statRace2", age)).getId()));
+
+        // then - 늦은 쪽도 PK 위반으로 롤백되지 않는다.
+        long firstId = first.get();
+        long secondId = second.get();
+        assertThat(memberStatRepository.countByAge(age)).isEqualTo(before + 2);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.deleteById(firstId);
+            memberRepository.deleteById(secondId);
+        });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package study.datajpa.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entitiy.Member;
+import study.datajpa.entitiy.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 색인은 커밋 이후에 반영되므로 @Transactional 없이 테스트한다.
+@SpringBootTest
+class SearchIndexTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    SearchIndex searchIndex;
+
+    @Test
+    public void searchByUsername() {
+        // given
+        Team team = teamRepository.save(new Team("indexedTeam"));
+        Member alice = memberRepository.save(new Member("zzAlice", 10, team));
+        Member malice = memberRepository.save(new Member("zzMalice", 20));
+
+        // when
+        List<Member> prefix = memberRepository.searchByUsername("zzal", 10);
+        List<Member> fragment = memberRepository.searchByUsername("LICE", 10);
+
+        // then
+        assertThat(prefix).extracting(Member::getId).containsExactly(alice.getId());
+        assertThat(fragment).extracting(Member::getId).contains(alice.getId(), malice.getId());
+        assertThat(searchIndex.searchTeamIds("xedTe", 10)).containsExactly(team.getId());
+
+        // 수정, 삭제 반영
+        malice.setUsername("zzBob");
+        memberRepository.save(malice);
+        memberRepository.delete(alice);
+
+        assertThat(memberRepository.searchByUsername("lice", 10))
+                .extracting(Member::getId)
+                .doesNotContain(alice.getId(), malice.getId());
+        assertThat(memberRepository.searchByUsername("zzbo", 10))
+                .extracting(Member::getId)
+                .containsExactly(malice.getId());
+    }
+
+    @Test
+    public void rebuildSwapsIndex() {
+        // given
+        Member member = memberRepository.save(new Member("zzRebuild", 10));
+
+        // when
+        searchIndex.rebuild();
+
+        // then - 새 색인으로 교체된 뒤에도 증분 반영이 이어진다.
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.searchMemberIds("zzrebu", 10)).containsExactly(member.getId());
+        memberRepository.delete(member);
+        assertThat(searchIndex.searchMemberIds("zzrebu", 10)).isEmpty();
+    }
+
+    @Test
+    public void textIndexPostings() {
+        // given - id 역순으로 넣어도 posting 목록은 정렬된 상태를 유지한다.
+        TextIndex index = new TextIndex();
+        for (long id = 1000; id >= 1; id--) {
+            index.put(id, "name" + id);
+        }
+
+        // when
+        for (long id = 2; id <= 1000; id += 2) {
+            index.remove(id);
+        }
+        index.put(7, "renamed");
+
+        // then
+        assertThat(index.size()).isEqualTo(500);
+        assertThat(index.search("ame99", 10)).containsExactly(99L, 991L, 993L, 995L, 997L, 999L);
+        assertThat(index.search("name7", 3)).containsExactly(701L, 703L, 705L);
+        assertThat(index.search("renam", 10)).containsExactly(7L);
+    }
+}
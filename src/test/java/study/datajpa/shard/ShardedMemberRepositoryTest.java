@@ -0,0 +1,136 @@
+package study.datajpa.shard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.datajpa.entitiy.Member;
+import study.datajpa.entitiy.OutboxMessage;
+import study.datajpa.entitiy.Team;
+import study.datajpa.outbox.InMemoryOutboxSink;
+import study.datajpa.outbox.OutboxRelay;
+import study.datajpa.outbox.OutboxSink;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.OutboxMessageRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.writebehind.MemberWriteBehindBuffer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "datajpa.seed.count=0",
+        "datajpa.bootstrap.snapshot=",
+        "datajpa.sharding.enabled=true",
+        "datajpa.sharding.shards.shard0.url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+        "datajpa.sharding.shards.shard1.url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "datajpa.sharding.tenants.acme=shard1",
+        "datajpa.write-behind.enabled=true",
+        "datajpa.write-behind.flush-interval-ms=60000",
+        "datajpa.outbox.relay-interval-ms=0"
+})
+class ShardedMemberRepositoryTest {
+
+    @Autowired
+    ShardedMemberRepository shardedMemberRepository;
+
+    @Autowired
+    ShardTemplate shardTemplate;
+
+    @Autowired
+    ShardResolver shardResolver;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    @Autowired
+    OutboxSink outboxSink;
+
+    @Autowired
+    MemberWriteBehindBuffer writeBehindBuffer;
+
+    @Test
+    public void scatterGather() {
+        // given
+        shardTemplate.execute("shard0", false, () -> memberRepository.saveAll(List.of(
+                new Member("s0-10", 10), new Member("s0-30", 30), new Member("s0-50", 50))));
+        shardTemplate.execute("shard1", false, () -> memberRepository.saveAll(List.of(
+                new Member("s1-20", 20), new Member("s1-40", 40))));
+
+        // then - 샤드마다 따로 저장된다.
+        assertThat(shardTemplate.execute("shard0", true, memberRepository::count)).isEqualTo(3);
+        assertThat(shardTemplate.execute("shard1", true, memberRepository::count)).isEqualTo(2);
+        assertThat(shardedMemberRepository.count()).isEqualTo(5);
+        assertThat(shardResolver.resolve("acme")).isEqualTo("shard1");
+
+        // when - 여러 샤드를 합친 정렬 + 페이징
+        Page<Member> first = shardedMemberRepository.findAll(PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age")));
+        Page<Member> second = shardedMemberRepository.findAll(PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "age")));
+
+        // then
+        assertThat(first.getContent()).extracting("age").containsExactly(50, 40, 30);
+        assertThat(second.getContent()).extracting("age").containsExactly(20, 10);
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getTotalPages()).isEqualTo(2);
+
+        // when - 샤드별 병렬 벌크 수정
+        int updated = shardedMemberRepository.bulkAgePlus(20);
+
+        // then
+        assertThat(updated).isEqualTo(4);
+        assertThat(shardedMemberRepository.findAll(PageRequest.of(0, 5, Sort.by("age"))).getContent())
+                .extracting("age").containsExactly(10, 21, 31, 41, 51);
+    }
+
+    @Test
+    public void backgroundJobsReachEveryShard() {
+        // given - shard1 에서 팀에 가입한 회원 (MemberTeamChanged 가 shard1 의 아웃박스에 기록된다)
+        InMemoryOutboxSink sink = (InMemoryOutboxSink) outboxSink;
+        outboxRelay.relay();
+        sink.clear();
+        Member member = shardTemplate.execute("shard1", false, () -> {
+            Team team = teamRepository.save(new Team("s1-team"));
+            return memberRepository.save(new Member("s1-background", 60, team));
+        });
+
+        // when - 요청 스레드에서 shard1 회원의 나이를 쓰기 지연으로 바꾸고, 샤드를 정하지 않은 스레드에서 반영한다.
+        ShardContext.callWith("shard1", () -> {
+            writeBehindBuffer.updateAge(member.getId(), 61);
+            return null;
+        });
+        int flushed = writeBehindBuffer.flush();
+
+        // then - 기본 샤드가 아닌 shard1 에 반영된다.
+        assertThat(flushed).isEqualTo(1);
+        assertThat(shardTemplate.execute("shard1", true,
+                () -> memberRepository.findById(member.getId()).orElseThrow().getAge())).isEqualTo(61);
+
+        // when - 릴레이도 샤드를 정하지 않고 실행한다.
+        int delivered = outboxRelay.relay();
+
+        // then - shard1 의 메시지까지 전달되고 남은 미전송 메시지가 없다.
+        assertThat(delivered).isEqualTo(1);
+        assertThat(sink.getDelivered()).extracting(OutboxMessage::getPayload)
+                .anySatisfy(payload -> assertThat(payload).contains("\"aggregateId\":" + member.getId()));
+        assertThat(shardTemplate.execute("shard1", true,
+                () -> outboxMessageRepository.findByDeliveredDateIsNull(PageRequest.of(0, 10)))).isEmpty();
+
+        // 다른 테스트의 샤드별 회원 수에 영향을 주지 않도록 지운다.
+        shardTemplate.execute("shard1", false, () -> {
+            memberRepository.deleteById(member.getId());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package study.datajpa.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.datajpa.entitiy.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.util.QueryBudget;
+import study.datajpa.util.QueryBudgetExceededException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// SQL 로그를 꺼도 (부하 테스트 설정) 문장을 센다.
+@SpringBootTest(properties = {
+        "datajpa.query-budget.enabled=true",
+        "datajpa.query-budget.max-entities=5",
+        "datajpa.query-budget.strict=true",
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+@AutoConfigureMockMvc
+class QueryBudgetFilterTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void reportUsage() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("budgetMember", 10));
+
+        // when - DTO 로 조회하므로 관리 엔티티가 생기지 않는다.
+        MvcResult result = mockMvc.perform(get("/members/{id}", member.getId())).andReturn();
+
+        // then
+        assertThat(result.getResponse().getContentAsString()).isEqualTo("budgetMember");
+        assertThat(Integer.parseInt(result.getResponse().getHeader("X-Query-Count"))).isPositive();
+        assertThat(result.getResponse().getHeader("X-Entity-Count")).isEqualTo("0");
+        assertThat(result.getResponse().getHeader("X-Jdbc-Time-Ms")).isNotNull();
+    }
+
+    @Test
+    public void strictModeFailsFast() {
+        // 엔티티 페이지 조회 - 20개의 Member 가 영속성 컨텍스트에 올라와서 예산(5)을 넘는다.
+        for (int i = 0; i < 20; i++) {
+            memberRepository.save(new Member("budget" + i, i));
+        }
+
+        // 핸들러 안에서 실패하면 ServletException 으로 감싸진다.
+        Throwable thrown = catchThrowable(() -> mockMvc.perform(get("/members").param("size", "20")));
+        assertThat(NestedExceptionUtils.getMostSpecificCause(thrown)).isInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    @Test
+    public void firstStatementOverBudgetFails() {
+        // given - 문장 2개까지 허용
+        QueryBudget.Usage usage = QueryBudget.begin("test", new QueryBudget.Limits(2, 100, 10_000, true));
+        try {
+            jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+            jdbcTemplate.queryForObject("select count(*) from team", Long.class);
+
+            // when, then - 세 번째 문장에서 바로 실패하고, 이후 문장은 다시 실패시키지 않는다.
+            assertThatThrownBy(() -> jdbcTemplate.queryForObject("select count(*) from member", Long.class))
+                    .isInstanceOf(QueryBudgetExceededException.class)
+                    .hasMessageContaining("statements=3");
+            jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+            assertThat(usage.getStatements()).isEqualTo(4);
+        } finally {
+            QueryBudget.end();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package study.datajpa.writebehind;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entitiy.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "datajpa.write-behind.enabled=true",
+        "datajpa.write-behind.flush-interval-ms=600000",
+        "datajpa.write-behind.capacity=5"
+})
+class MemberWriteBehindBufferTest {
+
+    @Autowired
+    MemberWriteBehindBuffer buffer;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void coalesceAndFlush() {
+        // given
+        Member member = memberRepository.save(new Member("writeBehind", 10));
+
+        // when - 같은 회원에 대한 여러 번의 변경은 하나로 합쳐진다.
+        for (int age = 11; age <= 20; age++) {
+            buffer.updateAge(member.getId(), age);
+        }
+
+        // then
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+        assertThat(buffer.findPendingAge(member.getId())).contains(20);
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(10);
+
+        assertThat(buffer.flush()).isEqualTo(1);
+        assertThat(buffer.pendingCount()).isZero();
+        Member findMember = memberRepository.findById(member.getId()).get();
+        assertThat(findMember.getAge()).isEqualTo(20);
+        assertThat(findMember.getLastModifiedDate()).isAfterOrEqualTo(member.getLastModifiedDate());
+    }
+
+    @Test
+    public void capacityFlushesOnCallerThread() {
+        // given
+        buffer.flush();
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            members.add(memberRepository.save(new Member("writeBehindCap" + i, 10)));
+        }
+
+        // when - 상한(5)에 닿은 뒤 새 회원을 바꾸면 호출한 스레드가 먼저 반영한다.
+        members.forEach(member -> buffer.updateAge(member.getId(), 30));
+
+        // then
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+        assertThat(memberRepository.findById(members.get(0).getId()).get().getAge()).isEqualTo(30);
+        buffer.flush();
+    }
+}